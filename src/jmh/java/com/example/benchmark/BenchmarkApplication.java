@@ -0,0 +1,64 @@
+package com.example.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.Application;
+
+/** Starts the application (without the web layer unless asked for) against an in-memory H2 database in MySQL mode, with
+ *  the schema created from the entities, and seeds it with set-based inserts.
+ */
+final class BenchmarkApplication {
+
+	static final int DEPARTMENTS = 20;
+	static final int USERS = 3;
+
+	private BenchmarkApplication() {
+	}
+
+	static ConfigurableApplicationContext start(String database) {
+		return start(database, WebApplicationType.NONE);
+	}
+
+	/** @param args further command-line arguments, e.g. --server.port=0 for a web application */
+	static ConfigurableApplicationContext start(String database, WebApplicationType webApplicationType, String... args) {
+		System.setProperty("spring.devtools.restart.enabled", "false");
+		List<String> arguments = new ArrayList<>(List.of(
+				"--spring.datasource.url=jdbc:h2:mem:" + database + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;OPTIMIZE_REUSE_RESULTS=FALSE",
+				"--spring.datasource.driver-class-name=org.h2.Driver",
+				"--spring.datasource.username=sa",
+				"--spring.datasource.password=",
+				"--spring.jpa.hibernate.ddl-auto=create",
+				"--spring.jpa.show-sql=false",
+				"--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+				"--logging.level.root=WARN",
+				"--logging.level.com.example=WARN"));
+		arguments.addAll(List.of(args));
+		return new SpringApplicationBuilder(Application.class)
+				.web(webApplicationType)
+				.logStartupInfo(false)
+				// Command-line arguments, so they take precedence over application.yml
+				.run(arguments.toArray(String[]::new));
+	}
+
+	/** USERS users, DEPARTMENTS departments and the given number of employees. First names repeat every
+	 *  1000 rows ("First0".."First999"), so a search for "first42" matches about 1.1% of them.
+	 */
+	static void seed(JdbcTemplate jdbc, int employees) {
+		jdbc.update("insert into users (id, username, email, password, status)"
+				+ " select x, 'user' || x, 'user' || x || '@example.com', 'pw', 'ACTIVE' from system_range(1, " + USERS + ") as r(x)");
+		jdbc.update("insert into departments (id, department_name, location, manager, budget, created_by, created_at)"
+				+ " select x, 'Dept' || x, 'City' || mod(x, 5), 'Manager' || x, 100000 * x, mod(x, " + USERS + ") + 1,"
+				+ " timestamp '2025-01-01 00:00:00' from system_range(1, " + DEPARTMENTS + ") as r(x)");
+		jdbc.update("insert into employees (first_name, last_name, email, hire_date, department_id, salary, created_by, created_at)"
+				+ " select 'First' || mod(x, 1000), 'Last' || x, 'emp' || x || '@example.com',"
+				+ " dateadd('DAY', -mod(x, 3650), date '2025-01-01'), mod(x, " + DEPARTMENTS + ") + 1,"
+				+ " 30000 + mod(x * 37, 90000), mod(x, " + USERS + ") + 1, timestamp '2025-01-01 00:00:00'"
+				+ " from system_range(1, " + employees + ") as r(x)");
+	}
+}
@@ -0,0 +1,75 @@
+package com.example.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.dto.DepartmentDto;
+import com.example.dto.EmployeeDto;
+import com.example.entity.Department;
+import com.example.entity.Employee;
+import com.example.entity.User;
+import com.example.service.DtoMapper;
+
+/** Throughput of the entity to DTO mapping. Run with -prof gc (the profile's default) for the
+ *  allocation rate, reported per operation as gc.alloc.rate.norm.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+	private Employee employee;
+	private Department department;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		User user = User.builder().id(1L).username("raj").email("raj@example.com").status("ACTIVE").build();
+		department = Department.builder()
+				.id(2L)
+				.departmentName("Engineering")
+				.location("Pune")
+				.manager("Meena")
+				.budget(new BigDecimal("800000.00"))
+				.createdBy(user)
+				.createdAt(LocalDateTime.of(2025, 1, 1, 9, 0))
+				.build();
+		employee = Employee.builder()
+				.id(3L)
+				.firstName("Priya")
+				.lastName("Nair")
+				.email("priya.nair@example.com")
+				.hireDate(LocalDate.of(2023, 11, 20))
+				.salary(new BigDecimal("60000.00"))
+				.department(department)
+				.createdBy(user)
+				.createdAt(LocalDateTime.of(2025, 2, 6, 11, 0))
+				.build();
+	}
+
+	@Benchmark
+	public EmployeeDto employeeDto() {
+		return DtoMapper.toEmployeeDto(employee);
+	}
+
+	@Benchmark
+	public DepartmentDto departmentDto() {
+		return DtoMapper.toDepartmentDto(department);
+	}
+}
@@ -0,0 +1,83 @@
+package com.example.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.dto.EmployeeDto;
+import com.example.dto.EmployeeResponse;
+import com.example.dto.FieldSet;
+import com.example.dto.SearchFilter;
+import com.example.service.CommonService;
+
+/** End-to-end CommonService calls (query, mapping, paging) against the seeded H2 database, per
+ *  number of employees. Seeding the 1M rows takes a while and needs the larger heap of the fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class QueryBenchmark {
+
+	private static final List<SearchFilter> FILTERS = List.of(
+			new SearchFilter("salary", "100000", "greaterThan"),
+			new SearchFilter("firstName", "first7", "like"));
+
+	@Param({ "10000", "100000", "1000000" })
+	private int employees;
+
+	private ConfigurableApplicationContext context;
+	private CommonService service;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkApplication.start("query" + employees);
+		BenchmarkApplication.seed(context.getBean(JdbcTemplate.class), employees);
+		service = context.getBean(CommonService.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	/** First page of a text search, with the count query. */
+	@Benchmark
+	public EmployeeResponse searchPage() {
+		return service.getEmployeesBySearch("first42", 1, 20, "id", "asc", null, true, FieldSet.ALL);
+	}
+
+	/** A page further in, without the count query. */
+	@Benchmark
+	public EmployeeResponse searchDeepPageWithoutTotal() {
+		return service.getEmployeesBySearch("first42", 40, 20, "hireDate", "desc", null, false, FieldSet.ALL);
+	}
+
+	/** Every match of a text search. */
+	@Benchmark
+	public List<EmployeeDto> searchAll() {
+		return service.searchEmployees("first42", FieldSet.ALL);
+	}
+
+	@Benchmark
+	public List<EmployeeDto> filter() {
+		return service.getEmployeesByFilter(FILTERS, FieldSet.ALL);
+	}
+}
@@ -0,0 +1,106 @@
+package com.example.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.codec.RowsDecoder;
+import com.example.codec.RowsEncoder;
+import com.example.dto.EmployeeDto;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/** JSON against the binary row format for a List<EmployeeDto> response, encoding and decoding.
+ *  The JSON side uses an ObjectMapper with Spring Boot's defaults (ISO dates). The encoded sizes of
+ *  both are printed when a trial starts; allocation per operation is reported as gc.alloc.rate.norm.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseEncodingBenchmark {
+
+	private static final TypeReference<List<EmployeeDto>> EMPLOYEE_LIST = new TypeReference<>() {
+	};
+
+	@Param({ "100", "10000" })
+	private int rows;
+
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 20);
+	private List<EmployeeDto> employees;
+	private byte[] json;
+	private byte[] binary;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		employees = new ArrayList<>(rows);
+		for (int i = 1; i <= rows; i++) {
+			long department = i % 20 + 1;
+			long user = i % 5 + 1;
+			employees.add(EmployeeDto.builder()
+					.id((long) i)
+					.firstName("First" + i)
+					.lastName("Last" + i)
+					.email("employee" + i + "@example.com")
+					.hireDate(LocalDate.of(2020, 1, 1).plusDays(i % 1500))
+					.salary(BigDecimal.valueOf(3_000_000 + i * 37L, 2))
+					.departmentId(department)
+					.departmentName("Department " + department)
+					.createdById(user)
+					.createdBy("user" + user)
+					.createdAt(LocalDateTime.of(2025, 1, 1, 9, 0).plusMinutes(i))
+					.build());
+		}
+		json = objectMapper.writeValueAsBytes(employees);
+		binary = rowsEncode();
+		System.out.printf("%n%d rows: json %d bytes, rows %d bytes (%.1f%%)%n", rows, json.length, binary.length,
+				100.0 * binary.length / json.length);
+	}
+
+	@Benchmark
+	public byte[] jsonEncode() throws IOException {
+		out.reset();
+		objectMapper.writeValue(out, employees);
+		return out.toByteArray();
+	}
+
+	@Benchmark
+	public byte[] rowsEncode() throws IOException {
+		out.reset();
+		RowsEncoder.writeEmployees(employees, out);
+		return out.toByteArray();
+	}
+
+	@Benchmark
+	public List<EmployeeDto> jsonDecode() throws IOException {
+		return objectMapper.readValue(json, EMPLOYEE_LIST);
+	}
+
+	@Benchmark
+	public List<EmployeeDto> rowsDecode() throws IOException {
+		return RowsDecoder.readEmployees(new ByteArrayInputStream(binary));
+	}
+}
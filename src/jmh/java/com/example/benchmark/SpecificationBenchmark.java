@@ -0,0 +1,110 @@
+package com.example.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.dto.SearchFilter;
+import com.example.entity.Employee;
+import com.example.specification.CompiledFilter;
+import com.example.specification.EmployeeSpecification;
+import com.example.specification.FilterQueryCompiler;
+import com.example.specification.GenericSpecification;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/** Cost of turning a SearchFilter list into a predicate, per filter count: the criteria built by
+ *  byFilters, byFiltersWithJoin (every other column is an association path) and GenericSpecification,
+ *  against the shape-cached lookup of FilterQueryCompiler. No query is executed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpecificationBenchmark {
+
+	private static final String[] COLUMNS = { "firstName", "lastName", "email" };
+	private static final String[] JOINED_COLUMNS = { "department.departmentName", "createdBy.username", "department.location" };
+	private static final String[] OPERATIONS = { "like", "equal", "notEqual", "greaterThan" };
+
+	@Param({ "1", "4", "16" })
+	private int filterCount;
+
+	private ConfigurableApplicationContext context;
+	private EntityManager em;
+	private CriteriaBuilder cb;
+	private FilterQueryCompiler compiler;
+	private List<SearchFilter> filters;
+	private List<SearchFilter> joinFilters;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkApplication.start("spec");
+		em = context.getBean(EntityManagerFactory.class).createEntityManager();
+		cb = em.getCriteriaBuilder();
+		compiler = context.getBean(FilterQueryCompiler.class);
+		filters = new ArrayList<>();
+		joinFilters = new ArrayList<>();
+		for (int i = 0; i < filterCount; i++) {
+			String operation = OPERATIONS[i % OPERATIONS.length];
+			filters.add(new SearchFilter(COLUMNS[i % COLUMNS.length], "value" + i, operation));
+			String column = i % 2 == 0 ? COLUMNS[i % COLUMNS.length] : JOINED_COLUMNS[i % JOINED_COLUMNS.length];
+			joinFilters.add(new SearchFilter(column, "value" + i, operation));
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		em.close();
+		context.close();
+	}
+
+	@Benchmark
+	public Predicate byFilters() {
+		return toPredicate(EmployeeSpecification.byFilters(filters));
+	}
+
+	@Benchmark
+	public Predicate byFiltersWithJoin() {
+		return toPredicate(EmployeeSpecification.byFiltersWithJoin(joinFilters));
+	}
+
+	@Benchmark
+	public Predicate genericSpecification() {
+		return toPredicate(new GenericSpecification<>(filters));
+	}
+
+	@Benchmark
+	public CompiledFilter compiledFilter() {
+		return compiler.compile(Employee.class, "e", filters);
+	}
+
+	private Predicate toPredicate(Specification<Employee> spec) {
+		CriteriaQuery<Employee> query = cb.createQuery(Employee.class);
+		Root<Employee> root = query.from(Employee.class);
+		return spec.toPredicate(root, query, cb);
+	}
+}
@@ -0,0 +1,15 @@
+package com.example.cache;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.example.dto.FieldSet;
+
+/** Cache key of /api/dept: the full set of fetchDepartments parameters, including the fields selected. */
+public record DepartmentQuery(String location,
+							  BigDecimal budget,
+							  String createdBy,
+							  LocalDateTime startDate,
+							  LocalDateTime endDate,
+							  FieldSet fields) {
+}
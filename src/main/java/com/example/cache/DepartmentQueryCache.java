@@ -0,0 +1,76 @@
+package com.example.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.dto.DepartmentDto;
+import com.example.entity.Department;
+import com.example.entity.User;
+import com.example.listener.EntityChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/** Results of fetchDepartments, bounded by size and TTL and dropped as soon as a Department or User
+ *  change commits (any such change can alter the rows or the createdBy name of any cached result).
+ *  Hits, misses, evictions and size are published as cache.* metrics with cache=departments, plus
+ *  app.department.cache.hit.ratio.
+ */
+@Slf4j
+@Component
+public class DepartmentQueryCache {
+
+	private final Cache<DepartmentQuery, List<DepartmentDto>> results;
+	// Bumped before every invalidation so that a load that raced with a write is not kept
+	private final AtomicLong generation = new AtomicLong();
+
+	public DepartmentQueryCache(MeterRegistry registry,
+			@Value("${app.cache.departments.max-size:500}") long maxSize,
+			@Value("${app.cache.departments.ttl:10m}") Duration ttl) {
+		this.results = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfterWrite(ttl)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(registry, results, "departments");
+		Gauge.builder("app.department.cache.hit.ratio", results, cache -> cache.stats().hitRate())
+				.description("Share of /api/dept queries answered from the cache")
+				.register(registry);
+	}
+
+	public List<DepartmentDto> get(DepartmentQuery query, Supplier<List<DepartmentDto>> loader) {
+		List<DepartmentDto> cached = results.getIfPresent(query);
+		if (Objects.nonNull(cached)) {
+			return cached;
+		}
+		long loadedAt = generation.get();
+		List<DepartmentDto> loaded = List.copyOf(loader.get());
+		results.put(query, loaded);
+		if (loadedAt != generation.get()) {
+			// A write committed while loading, the result may predate it
+			results.invalidate(query);
+		}
+		return loaded;
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onEntityChanged(EntityChangedEvent event) {
+		if (event.isFor(Department.class) || event.isFor(User.class)) {
+			generation.incrementAndGet();
+			results.invalidateAll();
+			log.debug("Department query cache invalidated by {} of {}", event.type(),
+					event.entity().getClass().getSimpleName());
+		}
+	}
+}
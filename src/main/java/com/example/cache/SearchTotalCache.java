@@ -0,0 +1,42 @@
+package com.example.cache;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/** Bounded, TTL based cache of employee search totals keyed by the normalized search text.
+ *  Lets paged search report a (possibly slightly stale) total without running a count per page.
+ */
+@Component
+public class SearchTotalCache {
+
+	private final Cache<String, Long> totals;
+
+	public SearchTotalCache(@Value("${app.search.total-cache.max-size:10000}") long maxSize,
+			@Value("${app.search.total-cache.ttl:60s}") Duration ttl) {
+		this.totals = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfterWrite(ttl)
+				.build();
+	}
+
+	public Long get(String searchText) {
+		return totals.getIfPresent(normalize(searchText));
+	}
+
+	public void put(String searchText, long total) {
+		totals.put(normalize(searchText), total);
+	}
+
+	// Mirrors EmployeeSpecification.searchByText: blank text matches everything, otherwise the
+	// pattern is the lower-cased text as is.
+	private static String normalize(String searchText) {
+		return Objects.isNull(searchText) || searchText.trim().isEmpty() ? "" : searchText.toLowerCase(Locale.ROOT);
+	}
+}
@@ -0,0 +1,98 @@
+package com.example.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.WebRequest;
+
+import com.example.entity.Department;
+import com.example.entity.Employee;
+import com.example.entity.User;
+import com.example.listener.EntityChangedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/** Monotonic version counters for the employees, departments and users tables, bumped when a change
+ *  to one of their entities commits, and the ETags derived from them for conditional GETs.
+ *  An ETag covers the versions of the tables a response is read from, the request parameters and the
+ *  Accept header, plus an epoch drawn at startup so that tags from before a restart never match.
+ *  Versions are read before the query runs and bumped after the commit, so a response can carry an
+ *  older version than its data (one extra full response later) but never a newer one.
+ *  The counters only see this instance's writes, see the README for the limits that implies.
+ */
+@Component
+public class TableVersions {
+
+	public enum Table { EMPLOYEES, DEPARTMENTS, USERS }
+
+	private final long epoch = ThreadLocalRandom.current().nextLong();
+	private final Map<Table, AtomicLong> versions = new EnumMap<>(Table.class);
+	private final Counter notModified;
+	private final Counter modified;
+
+	public TableVersions(MeterRegistry registry) {
+		for (Table table : Table.values()) {
+			versions.put(table, new AtomicLong());
+		}
+		this.notModified = Counter.builder("app.conditional.requests").tag("result", "not_modified")
+				.description("Conditional GETs by outcome").register(registry);
+		this.modified = Counter.builder("app.conditional.requests").tag("result", "modified")
+				.description("Conditional GETs by outcome").register(registry);
+	}
+
+	public long version(Table table) {
+		return versions.get(table).get();
+	}
+
+	/** Sets the ETag of the response and tells whether the client's copy is still current, in which case
+	 *  the response is already a 304 and the caller returns without a body.
+	 */
+	public boolean checkNotModified(WebRequest request, Set<Table> tables, Object... parameters) {
+		String etag = etag(tables, request.getHeader("Accept"), parameters);
+		if (request.checkNotModified(etag)) {
+			notModified.increment();
+			return true;
+		}
+		modified.increment();
+		return false;
+	}
+
+	String etag(Set<Table> tables, String accept, Object... parameters) {
+		StringBuilder key = new StringBuilder().append(epoch);
+		for (Table table : Table.values()) {
+			if (tables.contains(table)) {
+				key.append('|').append(table).append('=').append(version(table));
+			}
+		}
+		key.append('|').append(accept).append('|').append(Arrays.toString(parameters));
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.toString().getBytes(StandardCharsets.UTF_8));
+			// Weak: equal results, not necessarily equal bytes (e.g. a cached total standing in for a count)
+			return "W/\"" + HexFormat.of().formatHex(digest, 0, 12) + "\"";
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onEntityChanged(EntityChangedEvent event) {
+		if (event.isFor(Employee.class)) {
+			versions.get(Table.EMPLOYEES).incrementAndGet();
+		} else if (event.isFor(Department.class)) {
+			versions.get(Table.DEPARTMENTS).incrementAndGet();
+		} else if (event.isFor(User.class)) {
+			versions.get(Table.USERS).incrementAndGet();
+		}
+	}
+}
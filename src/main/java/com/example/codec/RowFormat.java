@@ -0,0 +1,71 @@
+package com.example.codec;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import com.example.dto.DepartmentDto;
+import com.example.dto.EmployeeDto;
+
+/** Compact binary row format for EmployeeDto and DepartmentDto lists and EmployeeResponse pages,
+ *  served for Accept: application/vnd.example.rows. All integers are unsigned LEB128 varints, signed
+ *  ones zigzag-encoded first.
+ *
+ *  	magic "EROW", version, kind
+ *  	schema: column count, then per column its name, type and (DECIMAL only) scale
+ *  	row count, then per row a null bitmap (one bit per column) followed by the non-null values:
+ *  	  LONG        zigzag varint
+ *  	  STRING      byte length, UTF-8 bytes
+ *  	  DICTIONARY  index into the strings seen so far in the column; an index equal to their count
+ *  	              is followed by a new STRING, which gets that index
+ *  	  DATE        zigzag varint epoch day
+ *  	  DATETIME    zigzag varint epoch second (as UTC), varint nano of second
+ *  	  DECIMAL     zigzag varint unscaled value at the column's scale
+ *  	EMPLOYEE_PAGE only: the PageMetadata fields after the rows, in declaration order, with a null
+ *  	bitmap in front of them
+ *
+ *  Readers match columns by name and skip the ones they do not know, so columns can be added.
+ */
+public final class RowFormat {
+
+	public static final String MEDIA_TYPE = "application/vnd.example.rows";
+
+	static final byte[] MAGIC = { 'E', 'R', 'O', 'W' };
+	static final int VERSION = 1;
+
+	public enum Kind { EMPLOYEES, DEPARTMENTS, EMPLOYEE_PAGE }
+
+	public enum Type { LONG, STRING, DICTIONARY, DATE, DATETIME, DECIMAL }
+
+	/** A column of the rows of T, rebuilt on the reading side through a builder B. */
+	record Column<T, B>(String name, Type type, Function<T, Object> getter, BiConsumer<B, Object> setter) {
+	}
+
+	static final List<Column<EmployeeDto, EmployeeDto.EmployeeDtoBuilder>> EMPLOYEE_COLUMNS = List.of(
+			new Column<>("id", Type.LONG, EmployeeDto::id, (b, v) -> b.id((Long) v)),
+			new Column<>("firstName", Type.STRING, EmployeeDto::firstName, (b, v) -> b.firstName((String) v)),
+			new Column<>("lastName", Type.STRING, EmployeeDto::lastName, (b, v) -> b.lastName((String) v)),
+			new Column<>("email", Type.STRING, EmployeeDto::email, (b, v) -> b.email((String) v)),
+			new Column<>("hireDate", Type.DATE, EmployeeDto::hireDate, (b, v) -> b.hireDate((LocalDate) v)),
+			new Column<>("salary", Type.DECIMAL, EmployeeDto::salary, (b, v) -> b.salary((BigDecimal) v)),
+			new Column<>("departmentId", Type.LONG, EmployeeDto::departmentId, (b, v) -> b.departmentId((Long) v)),
+			new Column<>("departmentName", Type.DICTIONARY, EmployeeDto::departmentName, (b, v) -> b.departmentName((String) v)),
+			new Column<>("createdById", Type.LONG, EmployeeDto::createdById, (b, v) -> b.createdById((Long) v)),
+			new Column<>("createdBy", Type.DICTIONARY, EmployeeDto::createdBy, (b, v) -> b.createdBy((String) v)),
+			new Column<>("createdAt", Type.DATETIME, EmployeeDto::createdAt, (b, v) -> b.createdAt((LocalDateTime) v)));
+
+	static final List<Column<DepartmentDto, DepartmentDto.DepartmentDtoBuilder>> DEPARTMENT_COLUMNS = List.of(
+			new Column<>("id", Type.LONG, DepartmentDto::id, (b, v) -> b.id((Long) v)),
+			new Column<>("departmentName", Type.STRING, DepartmentDto::departmentName, (b, v) -> b.departmentName((String) v)),
+			new Column<>("location", Type.DICTIONARY, DepartmentDto::location, (b, v) -> b.location((String) v)),
+			new Column<>("manager", Type.STRING, DepartmentDto::manager, (b, v) -> b.manager((String) v)),
+			new Column<>("budget", Type.DECIMAL, DepartmentDto::budget, (b, v) -> b.budget((BigDecimal) v)),
+			new Column<>("createdBy", Type.DICTIONARY, DepartmentDto::createdBy, (b, v) -> b.createdBy((String) v)),
+			new Column<>("createdAt", Type.DATETIME, DepartmentDto::createdAt, (b, v) -> b.createdAt((LocalDateTime) v)));
+
+	private RowFormat() {
+	}
+}
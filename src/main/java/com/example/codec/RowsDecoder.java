@@ -0,0 +1,205 @@
+package com.example.codec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import com.example.codec.RowFormat.Column;
+import com.example.codec.RowFormat.Kind;
+import com.example.codec.RowFormat.Type;
+import com.example.dto.DepartmentDto;
+import com.example.dto.EmployeeDto;
+import com.example.dto.EmployeeResponse;
+import com.example.dto.PageMetadata;
+
+/** Reads RowFormat, for Java clients of the API:
+ *
+ *  	HttpRequest request = HttpRequest.newBuilder(uri).header("Accept", RowFormat.MEDIA_TYPE).build();
+ *  	try (InputStream body = client.send(request, BodyHandlers.ofInputStream()).body()) {
+ *  		List<EmployeeDto> employees = RowsDecoder.readEmployees(body);
+ *  	}
+ *
+ *  Columns the schema header names but this decoder does not know are read and dropped.
+ */
+public final class RowsDecoder {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final InputStream in;
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int position;
+	private int limit;
+
+	private RowsDecoder(InputStream in) {
+		this.in = in;
+	}
+
+	public static List<EmployeeDto> readEmployees(InputStream in) throws IOException {
+		RowsDecoder decoder = new RowsDecoder(in);
+		decoder.header(Kind.EMPLOYEES);
+		return decoder.rows(RowFormat.EMPLOYEE_COLUMNS, EmployeeDto::builder, EmployeeDto.EmployeeDtoBuilder::build);
+	}
+
+	public static List<DepartmentDto> readDepartments(InputStream in) throws IOException {
+		RowsDecoder decoder = new RowsDecoder(in);
+		decoder.header(Kind.DEPARTMENTS);
+		return decoder.rows(RowFormat.DEPARTMENT_COLUMNS, DepartmentDto::builder, DepartmentDto.DepartmentDtoBuilder::build);
+	}
+
+	public static EmployeeResponse readEmployeePage(InputStream in) throws IOException {
+		RowsDecoder decoder = new RowsDecoder(in);
+		decoder.header(Kind.EMPLOYEE_PAGE);
+		List<EmployeeDto> data = decoder.rows(RowFormat.EMPLOYEE_COLUMNS, EmployeeDto::builder,
+				EmployeeDto.EmployeeDtoBuilder::build);
+		return new EmployeeResponse(data, decoder.pageMetadata());
+	}
+
+	@FunctionalInterface
+	private interface Build<B, T> {
+		T build(B builder);
+	}
+
+	private void header(Kind expected) throws IOException {
+		for (byte b : RowFormat.MAGIC) {
+			if (readByte() != b) {
+				throw new IOException("Not a " + RowFormat.MEDIA_TYPE + " body");
+			}
+		}
+		int version = readByte();
+		if (version != RowFormat.VERSION) {
+			throw new IOException("Unsupported row format version " + version);
+		}
+		int kind = readByte();
+		if (kind != expected.ordinal()) {
+			throw new IOException("Expected " + expected + " but the body holds " + Kind.values()[kind]);
+		}
+	}
+
+	private <T, B> List<T> rows(List<Column<T, B>> known, Supplier<B> builder, Build<B, T> build) throws IOException {
+		int columnCount = (int) readVarint();
+		Type[] types = new Type[columnCount];
+		int[] scales = new int[columnCount];
+		List<Column<T, B>> columns = new ArrayList<>(columnCount);
+		for (int c = 0; c < columnCount; c++) {
+			String name = readString();
+			types[c] = Type.values()[readByte()];
+			if (types[c] == Type.DECIMAL) {
+				scales[c] = (int) readVarint();
+			}
+			columns.add(known.stream().filter(column -> column.name().equals(name)).findFirst().orElse(null));
+		}
+
+		List<List<String>> dictionaries = new ArrayList<>(columnCount);
+		for (int c = 0; c < columnCount; c++) {
+			dictionaries.add(new ArrayList<>());
+		}
+		int rowCount = (int) readVarint();
+		List<T> rows = new ArrayList<>(rowCount);
+		boolean[] nulls = new boolean[columnCount];
+		for (int r = 0; r < rowCount; r++) {
+			nullBitmap(nulls);
+			B row = builder.get();
+			for (int c = 0; c < columnCount; c++) {
+				if (nulls[c]) continue;
+				Object value = value(types[c], scales[c], dictionaries.get(c));
+				if (Objects.nonNull(columns.get(c))) {
+					columns.get(c).setter().accept(row, value);
+				}
+			}
+			rows.add(build.build(row));
+		}
+		return rows;
+	}
+
+	private Object value(Type type, int scale, List<String> dictionary) throws IOException {
+		return switch (type) {
+			case LONG -> readSigned();
+			case STRING -> readString();
+			case DICTIONARY -> {
+				int index = (int) readVarint();
+				if (index == dictionary.size()) {
+					dictionary.add(readString());
+				}
+				yield dictionary.get(index);
+			}
+			case DATE -> LocalDate.ofEpochDay(readSigned());
+			case DATETIME -> LocalDateTime.ofEpochSecond(readSigned(), (int) readVarint(), ZoneOffset.UTC);
+			case DECIMAL -> BigDecimal.valueOf(readSigned(), scale);
+		};
+	}
+
+	private PageMetadata pageMetadata() throws IOException {
+		boolean[] nulls = new boolean[7];
+		nullBitmap(nulls);
+		return PageMetadata.builder()
+				.pageNumber(nulls[0] ? null : (int) readSigned())
+				.pageSize((int) readSigned())
+				.totalPages(nulls[2] ? null : (int) readSigned())
+				.noOfElements((int) readSigned())
+				.totalElements(nulls[4] ? null : readSigned())
+				.totalCached(readByte() != 0)
+				.nextCursor(nulls[6] ? null : readString())
+				.build();
+	}
+
+	private void nullBitmap(boolean[] nulls) throws IOException {
+		for (int start = 0; start < nulls.length; start += 8) {
+			int bits = readByte();
+			for (int i = start; i < Math.min(start + 8, nulls.length); i++) {
+				nulls[i] = (bits & (1 << (i - start))) != 0;
+			}
+		}
+	}
+
+	private String readString() throws IOException {
+		int length = (int) readVarint();
+		if (length <= limit - position) {
+			String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+			position += length;
+			return value;
+		}
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = (byte) readByte();
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private long readSigned() throws IOException {
+		long value = readVarint();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private long readVarint() throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed varint");
+	}
+
+	private int readByte() throws IOException {
+		if (position == limit) {
+			limit = in.read(buffer, 0, buffer.length);
+			position = 0;
+			if (limit <= 0) {
+				limit = 0;
+				throw new EOFException("Truncated row format body");
+			}
+		}
+		return buffer[position++] & 0xFF;
+	}
+}
@@ -0,0 +1,208 @@
+package com.example.codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.example.codec.RowFormat.Column;
+import com.example.codec.RowFormat.Kind;
+import com.example.codec.RowFormat.Type;
+import com.example.dto.DepartmentDto;
+import com.example.dto.EmployeeDto;
+import com.example.dto.EmployeeResponse;
+import com.example.dto.PageMetadata;
+
+/** Writes RowFormat. Output is buffered internally and flushed, not closed, at the end. A DECIMAL that
+ *  does not fit a 64-bit unscaled value at its column's scale is rejected with IllegalArgumentException
+ *  before anything reaches the stream.
+ */
+public final class RowsEncoder {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final OutputStream out;
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int position;
+
+	private RowsEncoder(OutputStream out) {
+		this.out = out;
+	}
+
+	public static void writeEmployees(List<EmployeeDto> employees, OutputStream out) throws IOException {
+		RowsEncoder encoder = new RowsEncoder(out);
+		encoder.header(Kind.EMPLOYEES);
+		encoder.rows(RowFormat.EMPLOYEE_COLUMNS, employees);
+		encoder.flush();
+	}
+
+	public static void writeDepartments(List<DepartmentDto> departments, OutputStream out) throws IOException {
+		RowsEncoder encoder = new RowsEncoder(out);
+		encoder.header(Kind.DEPARTMENTS);
+		encoder.rows(RowFormat.DEPARTMENT_COLUMNS, departments);
+		encoder.flush();
+	}
+
+	public static void writeEmployeePage(EmployeeResponse response, OutputStream out) throws IOException {
+		RowsEncoder encoder = new RowsEncoder(out);
+		encoder.header(Kind.EMPLOYEE_PAGE);
+		encoder.rows(RowFormat.EMPLOYEE_COLUMNS, Objects.requireNonNullElse(response.data(), List.of()));
+		encoder.pageMetadata(response.pageMetadata());
+		encoder.flush();
+	}
+
+	private void header(Kind kind) throws IOException {
+		for (byte b : RowFormat.MAGIC) {
+			writeByte(b);
+		}
+		writeByte(RowFormat.VERSION);
+		writeByte(kind.ordinal());
+	}
+
+	private <T> void rows(List<? extends Column<T, ?>> columns, List<T> rows) throws IOException {
+		// DECIMAL columns are written at the largest scale that occurs in them, checked up front so that a
+		// value whose unscaled form does not fit a long fails the body before any of it is written
+		int[] scales = new int[columns.size()];
+		for (int c = 0; c < columns.size(); c++) {
+			if (columns.get(c).type() == Type.DECIMAL) {
+				for (T row : rows) {
+					if (columns.get(c).getter().apply(row) instanceof BigDecimal value) {
+						scales[c] = Math.max(scales[c], value.scale());
+					}
+				}
+				for (T row : rows) {
+					if (columns.get(c).getter().apply(row) instanceof BigDecimal value
+							&& value.setScale(scales[c]).unscaledValue().bitLength() > 63) {
+						throw new IllegalArgumentException(columns.get(c).name() + " " + value.toPlainString()
+								+ " does not fit the row format at scale " + scales[c]);
+					}
+				}
+			}
+		}
+		writeVarint(columns.size());
+		for (int c = 0; c < columns.size(); c++) {
+			writeString(columns.get(c).name());
+			writeByte(columns.get(c).type().ordinal());
+			if (columns.get(c).type() == Type.DECIMAL) {
+				writeVarint(scales[c]);
+			}
+		}
+
+		List<Map<String, Integer>> dictionaries = columns.stream().<Map<String, Integer>>map(column -> new HashMap<>()).toList();
+		Object[] values = new Object[columns.size()];
+		writeVarint(rows.size());
+		for (T row : rows) {
+			for (int c = 0; c < columns.size(); c++) {
+				values[c] = columns.get(c).getter().apply(row);
+			}
+			nullBitmap(values);
+			for (int c = 0; c < columns.size(); c++) {
+				if (Objects.nonNull(values[c])) {
+					value(columns.get(c).type(), values[c], scales[c], dictionaries.get(c));
+				}
+			}
+		}
+	}
+
+	private void value(Type type, Object value, int scale, Map<String, Integer> dictionary) throws IOException {
+		switch (type) {
+			case LONG -> writeSigned((Long) value);
+			case STRING -> writeString((String) value);
+			case DICTIONARY -> {
+				Integer index = dictionary.get(value);
+				if (Objects.nonNull(index)) {
+					writeVarint(index);
+				} else {
+					writeVarint(dictionary.size());
+					dictionary.put((String) value, dictionary.size());
+					writeString((String) value);
+				}
+			}
+			case DATE -> writeSigned(((LocalDate) value).toEpochDay());
+			case DATETIME -> {
+				LocalDateTime dateTime = (LocalDateTime) value;
+				writeSigned(dateTime.toEpochSecond(ZoneOffset.UTC));
+				writeVarint(dateTime.getNano());
+			}
+			case DECIMAL -> writeSigned(((BigDecimal) value).setScale(scale).unscaledValue().longValueExact());
+		}
+	}
+
+	private void pageMetadata(PageMetadata page) throws IOException {
+		Object[] values = { page.pageNumber(), page.pageSize(), page.totalPages(), page.noOfElements(),
+				page.totalElements(), page.totalCached(), page.nextCursor() };
+		nullBitmap(values);
+		if (Objects.nonNull(page.pageNumber())) writeSigned(page.pageNumber());
+		writeSigned(page.pageSize());
+		if (Objects.nonNull(page.totalPages())) writeSigned(page.totalPages());
+		writeSigned(page.noOfElements());
+		if (Objects.nonNull(page.totalElements())) writeSigned(page.totalElements());
+		writeByte(page.totalCached() ? 1 : 0);
+		if (Objects.nonNull(page.nextCursor())) writeString(page.nextCursor());
+	}
+
+	private void nullBitmap(Object[] values) throws IOException {
+		for (int start = 0; start < values.length; start += 8) {
+			int bits = 0;
+			for (int i = start; i < Math.min(start + 8, values.length); i++) {
+				if (Objects.isNull(values[i])) {
+					bits |= 1 << (i - start);
+				}
+			}
+			writeByte(bits);
+		}
+	}
+
+	private void writeString(String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarint(bytes.length);
+		if (bytes.length > buffer.length - position) {
+			flushBuffer();
+			if (bytes.length > buffer.length) {
+				out.write(bytes);
+				return;
+			}
+		}
+		System.arraycopy(bytes, 0, buffer, position, bytes.length);
+		position += bytes.length;
+	}
+
+	private void writeSigned(long value) throws IOException {
+		writeVarint((value << 1) ^ (value >> 63));
+	}
+
+	private void writeVarint(long value) throws IOException {
+		if (buffer.length - position < 10) {
+			flushBuffer();
+		}
+		while ((value & ~0x7FL) != 0) {
+			buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buffer[position++] = (byte) value;
+	}
+
+	private void writeByte(int value) throws IOException {
+		if (position == buffer.length) {
+			flushBuffer();
+		}
+		buffer[position++] = (byte) value;
+	}
+
+	private void flushBuffer() throws IOException {
+		out.write(buffer, 0, position);
+		position = 0;
+	}
+
+	private void flush() throws IOException {
+		flushBuffer();
+		out.flush();
+	}
+}
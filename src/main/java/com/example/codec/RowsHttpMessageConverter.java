@@ -0,0 +1,97 @@
+package com.example.codec;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.lang.Nullable;
+
+import com.example.dto.DepartmentDto;
+import com.example.dto.EmployeeDto;
+import com.example.dto.EmployeeResponse;
+
+/** Writes List<EmployeeDto>, List<DepartmentDto> and EmployeeResponse bodies in RowFormat when the client
+ *  accepts application/vnd.example.rows. Write-only; the element type is taken from the declared
+ *  return type, so an empty list is still written with its schema.
+ */
+public class RowsHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+	public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(RowFormat.MEDIA_TYPE);
+
+	public RowsHttpMessageConverter() {
+		super(MEDIA_TYPE);
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return EmployeeResponse.class == clazz;
+	}
+
+	/** The media types are looked up by raw class (ArrayList) before canWrite() checks the element type. */
+	@Override
+	public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+		return List.class.isAssignableFrom(clazz) || supports(clazz) ? getSupportedMediaTypes() : List.of();
+	}
+
+	@Override
+	public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+		return false;
+	}
+
+	@Override
+	protected boolean canRead(@Nullable MediaType mediaType) {
+		return false;
+	}
+
+	@Override
+	public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+		return Objects.nonNull(kind(Objects.requireNonNullElse(type, clazz))) && canWrite(mediaType);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	protected void writeInternal(Object body, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+		RowFormat.Kind kind = Objects.nonNull(type) ? kind(type) : kind(body.getClass());
+		try {
+			switch (Objects.requireNonNull(kind, "Not a row format body")) {
+				case EMPLOYEES -> RowsEncoder.writeEmployees((List<EmployeeDto>) body, outputMessage.getBody());
+				case DEPARTMENTS -> RowsEncoder.writeDepartments((List<DepartmentDto>) body, outputMessage.getBody());
+				case EMPLOYEE_PAGE -> RowsEncoder.writeEmployeePage((EmployeeResponse) body, outputMessage.getBody());
+			}
+		} catch (IllegalArgumentException e) {
+			// A value the format cannot hold; nothing was written, so this is still an ordinary 500
+			throw new HttpMessageNotWritableException(e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) {
+		throw new HttpMessageNotReadableException("Row format request bodies are not supported", inputMessage);
+	}
+
+	@Override
+	protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+		throw new HttpMessageNotReadableException("Row format request bodies are not supported", inputMessage);
+	}
+
+	private static RowFormat.Kind kind(Type type) {
+		if (type == EmployeeResponse.class) {
+			return RowFormat.Kind.EMPLOYEE_PAGE;
+		}
+		if (type instanceof ParameterizedType parameterized && parameterized.getRawType() instanceof Class<?> raw
+				&& List.class.isAssignableFrom(raw)) {
+			Type element = parameterized.getActualTypeArguments()[0];
+			if (element == EmployeeDto.class) return RowFormat.Kind.EMPLOYEES;
+			if (element == DepartmentDto.class) return RowFormat.Kind.DEPARTMENTS;
+		}
+		return null;
+	}
+}
@@ -0,0 +1,11 @@
+package com.example.concurrency;
+
+/** A service call did not get a JDBC permit in time, see JdbcAdmissionGate. */
+public class AdmissionRejectedException extends RuntimeException {
+
+	private static final long serialVersionUID = -6030813371512917345L;
+
+	public AdmissionRejectedException(String message) {
+		super(message);
+	}
+}
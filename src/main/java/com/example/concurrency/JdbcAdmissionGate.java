@@ -0,0 +1,73 @@
+package com.example.concurrency;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.metrics.QueryMetrics.Call;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/** Limits the service calls that run at once to the size of the JDBC connection pool. With request
+ *  threads on virtual threads there is no Tomcat pool left to bound the concurrency, and thousands of
+ *  requests would otherwise queue inside Hikari and time out there. Callers beyond the permits wait in
+ *  a fair queue for up to the configured timeout and are then rejected with AdmissionRejectedException.
+ *  A call made while the thread already holds a permit runs without taking another one.
+ *  Enabled by default together with spring.threads.virtual.enabled.
+ */
+@Component
+public class JdbcAdmissionGate {
+
+	private static final ThreadLocal<Boolean> ADMITTED = new ThreadLocal<>();
+
+	private final boolean enabled;
+	private final Semaphore permits;
+	private final long timeoutNanos;
+	private final Counter rejected;
+
+	public JdbcAdmissionGate(MeterRegistry registry,
+			@Value("${app.admission.enabled:${spring.threads.virtual.enabled:false}}") boolean enabled,
+			@Value("${app.admission.permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permits,
+			@Value("${app.admission.timeout:5s}") Duration timeout) {
+		this.enabled = enabled;
+		this.permits = new Semaphore(permits, true);
+		this.timeoutNanos = timeout.toNanos();
+		this.rejected = Counter.builder("app.admission.rejected")
+				.description("Service calls rejected after waiting for a JDBC permit").register(registry);
+		Gauge.builder("app.admission.waiting", this.permits, Semaphore::getQueueLength)
+				.description("Service calls waiting for a JDBC permit").register(registry);
+		Gauge.builder("app.admission.available", this.permits, Semaphore::availablePermits)
+				.description("Free JDBC permits").register(registry);
+	}
+
+	public <T, E extends Exception> T admit(Call<T, E> call) throws E {
+		if (!enabled || Boolean.TRUE.equals(ADMITTED.get())) {
+			return call.call();
+		}
+		acquire();
+		ADMITTED.set(Boolean.TRUE);
+		try {
+			return call.call();
+		} finally {
+			ADMITTED.remove();
+			permits.release();
+		}
+	}
+
+	private void acquire() {
+		try {
+			if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+				rejected.increment();
+				throw new AdmissionRejectedException("No database capacity within " + Duration.ofNanos(timeoutNanos).toMillis() + " ms");
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new AdmissionRejectedException("Interrupted while waiting for database capacity");
+		}
+	}
+}
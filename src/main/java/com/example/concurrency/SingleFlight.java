@@ -0,0 +1,125 @@
+package com.example.concurrency;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.listener.EntityChangedEvent;
+import com.example.replica.RecentWrites;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/** Coalesces identical concurrent service calls: the first call for a key runs, calls with the same key
+ *  that arrive while it is running wait for it and return its result (or its exception) instead of
+ *  running the same query again. A waiting call that has no result after the configured timeout runs
+ *  on its own. Nothing is kept once a call completes, this is not a cache.
+ *  Calls from a session with a recent write (see RecentWrites) always run on their own, and a committed
+ *  entity change detaches the calls in flight, so that no call returns a result read before a write
+ *  that committed before it arrived.
+ *  Counted as app.single-flight.calls with result=executed or coalesced, plus app.single-flight.timeouts.
+ */
+@Slf4j
+@Component
+public class SingleFlight {
+
+	private final boolean enabled;
+	private final long timeoutNanos;
+	private final ObjectProvider<RecentWrites> recentWrites;
+	private final MeterRegistry registry;
+	private final Counter timeouts;
+	private final ConcurrentMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+	public SingleFlight(MeterRegistry registry, ObjectProvider<RecentWrites> recentWrites,
+			@Value("${app.single-flight.enabled:false}") boolean enabled,
+			@Value("${app.single-flight.timeout:5s}") Duration timeout) {
+		this.enabled = enabled;
+		this.timeoutNanos = timeout.toNanos();
+		this.recentWrites = recentWrites;
+		this.registry = registry;
+		this.timeouts = Counter.builder("app.single-flight.timeouts")
+				.description("Coalesced calls that stopped waiting and ran on their own").register(registry);
+	}
+
+	/** @param parameters the call's arguments, normalized so that calls with the same result compare equal */
+	@SuppressWarnings("unchecked")
+	public <T> T call(String method, List<?> parameters, Supplier<T> call) {
+		RecentWrites writes = recentWrites.getIfAvailable();
+		if (!enabled || (Objects.nonNull(writes) && writes.hasRecentWrite())) {
+			return call.get();
+		}
+		Key key = new Key(method, parameters);
+		CompletableFuture<Object> flight = new CompletableFuture<>();
+		CompletableFuture<Object> running = inFlight.putIfAbsent(key, flight);
+		if (Objects.isNull(running)) {
+			return (T) lead(method, key, flight, call);
+		}
+		try {
+			Object result = running.get(timeoutNanos, TimeUnit.NANOSECONDS);
+			counter(method, "coalesced").increment();
+			return (T) result;
+		} catch (TimeoutException e) {
+			timeouts.increment();
+			log.debug("Stopped waiting for {} after {} ms, running it again", method,
+					TimeUnit.NANOSECONDS.toMillis(timeoutNanos));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new AdmissionRejectedException("Interrupted while waiting for an identical call");
+		} catch (ExecutionException e) {
+			counter(method, "coalesced").increment();
+			if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+			if (e.getCause() instanceof Error error) throw error;
+			throw new IllegalStateException(e.getCause());
+		}
+		counter(method, "executed").increment();
+		return call.get();
+	}
+
+	private Object lead(String method, Key key, CompletableFuture<Object> flight, Supplier<?> call) {
+		counter(method, "executed").increment();
+		try {
+			Object result = call.get();
+			flight.complete(result);
+			return result;
+		} catch (RuntimeException | Error e) {
+			flight.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, flight);
+		}
+	}
+
+	/** Calls that arrive after a change committed start a new flight instead of joining one that may
+	 *  have read before it; the detached flights still complete for the calls already waiting.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onEntityChanged(EntityChangedEvent event) {
+		if (enabled) {
+			inFlight.clear();
+		}
+	}
+
+	private Counter counter(String method, String result) {
+		return Counter.builder("app.single-flight.calls")
+				.tag("method", method)
+				.tag("result", result)
+				.description("Service calls that ran a query, or shared the result of an identical one in flight")
+				.register(registry);
+	}
+
+	private record Key(String method, List<?> parameters) {
+	}
+}
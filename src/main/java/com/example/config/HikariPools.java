@@ -0,0 +1,30 @@
+package com.example.config;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/** Hikari pools for additional databases (shards, replicas) configured like the main one: driver from
+ *  spring.datasource, pool settings from spring.datasource.hikari, only url and credentials differ.
+ */
+public final class HikariPools {
+
+	private HikariPools() {
+	}
+
+	public static HikariDataSource create(String poolName, String url, String username, String password,
+			DataSourceProperties defaults, Environment environment) {
+		HikariDataSource pool = defaults.initializeDataSourceBuilder()
+				.type(HikariDataSource.class)
+				.url(url)
+				.username(username)
+				.password(password)
+				.build();
+		Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+		pool.setPoolName(poolName);
+		return pool;
+	}
+}
@@ -0,0 +1,32 @@
+package com.example.config;
+
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.dto.DepartmentDto;
+import com.example.dto.EmployeeDto;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+@Configuration
+public class JacksonConfig {
+
+    public static final String FIELDS_FILTER = "fields";
+
+    /** Puts the row DTOs behind the "fields" property filter, which writes every property unless a
+     *  response narrows it (see FieldsResponseBodyAdvice). A mix-in keeps the DTOs free of Jackson.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer fieldsFilterCustomizer() {
+        return builder -> builder
+                .mixIn(EmployeeDto.class, FieldsFilterMixIn.class)
+                .mixIn(DepartmentDto.class, FieldsFilterMixIn.class)
+                .filters(new SimpleFilterProvider().addFilter(FIELDS_FILTER, SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    @JsonFilter(FIELDS_FILTER)
+    interface FieldsFilterMixIn {
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.example.codec.RowsHttpMessageConverter;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    /** Added after the JSON converter rather than as a bean (which Boot would put first), so that
+     *  clients sending Accept: *&#47;* keep getting JSON and only an explicit Accept gets the row format.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new RowsHttpMessageConverter());
+    }
+}
@@ -1,9 +1,14 @@
 package com.example.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -11,21 +16,40 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.cache.TableVersions;
+import com.example.cache.TableVersions.Table;
+import com.example.dto.BulkImportResult;
 import com.example.dto.DepartmentDto;
+import com.example.dto.DepartmentStats;
 import com.example.dto.EmployeeDto;
+import com.example.dto.EmployeeProjectsResponse;
 import com.example.dto.EmployeeResponse;
+import com.example.dto.EmployeeStats;
+import com.example.dto.FieldSet;
 import com.example.dto.SearchFilter;
 import com.example.service.CommonService;
+import com.example.service.EmployeeBulkService;
 
 @RestController
 @RequestMapping("/api")
 public class EmployeeController {
 
+    // Tables each polled response is read from, for its ETag
+    private static final Set<Table> DEPARTMENT_TABLES = Set.of(Table.DEPARTMENTS, Table.USERS);
+    private static final Set<Table> EMPLOYEE_TABLES = Set.of(Table.EMPLOYEES, Table.DEPARTMENTS, Table.USERS);
+
     private final CommonService employeeService;
+    private final EmployeeBulkService bulkService;
+    private final TableVersions tableVersions;
 
-    public EmployeeController(CommonService employeeService) {
+    public EmployeeController(CommonService employeeService, EmployeeBulkService bulkService,
+    		TableVersions tableVersions) {
         this.employeeService = employeeService;
+        this.bulkService = bulkService;
+        this.tableVersions = tableVersions;
     }
     
     /** Sample request url: 
@@ -33,6 +57,9 @@ public class EmployeeController {
     http://localhost:8080/api/dept?budget=800000
     http://localhost:8080/api/dept?location=Mumbai&budget=800000&createdBy=raj
     http://localhost:8080/api/dept?startDate=2025-02-01T00:00:00&endDate2025-06-00T00:00:00
+    Responses carry an ETag; sending it back as If-None-Match gets a 304 until a department or user changes.
+    fields=id,departmentName,... narrows the select list and the JSON to those fields, on every endpoint
+    that returns DepartmentDto or EmployeeDto rows; users is only joined for createdBy.
      */
     @GetMapping("/dept")
     public ResponseEntity<List<DepartmentDto>> getDepartments(
@@ -40,27 +67,37 @@ public class EmployeeController {
     		@RequestParam(required = false) BigDecimal budget,
     		@RequestParam(required = false) String createdBy,
     		@RequestParam(required = false) LocalDateTime startDate,
-    		@RequestParam(required = false) LocalDateTime endDate) {
-    	
+    		@RequestParam(required = false) LocalDateTime endDate,
+    		@RequestParam(required = false) String fields,
+    		WebRequest request) {
     	
+    	FieldSet fieldSet = FieldSet.parse(fields, DepartmentDto.class);
+    	// 304 for an If-None-Match that is still current, without running the query
+    	if (tableVersions.checkNotModified(request, DEPARTMENT_TABLES, location, budget, createdBy, startDate, endDate,
+    			fieldSet)) {
+    		return null;
+    	}
     	List<DepartmentDto> empList = employeeService.fetchDepartments(location,
-    			budget, createdBy, startDate, startDate);
+    			budget, createdBy, startDate, endDate, fieldSet);
         return ResponseEntity.ok(empList);
     }
     
     
-    /** GET http://localhost:8080/api/employees?searchText=rohan */
+    /** GET http://localhost:8080/api/employees?searchText=rohan
+     *  GET http://localhost:8080/api/employees?searchText=rohan&fields=id,firstName,lastName
+     */
     @GetMapping("/employees")
     public ResponseEntity<List<EmployeeDto>> getEmployees(@RequestParam(required = false)
-    		String searchText) {
-    	List<EmployeeDto> empList = employeeService.searchEmployees(searchText);
+    		String searchText, @RequestParam(required = false) String fields) {
+    	List<EmployeeDto> empList = employeeService.searchEmployees(searchText, FieldSet.parse(fields, EmployeeDto.class));
         return ResponseEntity.ok(empList);
     }
     
     @GetMapping("/employees/dept-username")
     public ResponseEntity<List<EmployeeDto>> getEmployeesDeptCreatedBy(@RequestParam(required = false)
-    		String username) {
-    	List<EmployeeDto> empList = employeeService.getAllEmployeeByDepartmentCreatedBy(username);
+    		String username, @RequestParam(required = false) String fields) {
+    	List<EmployeeDto> empList = employeeService.getAllEmployeeByDepartmentCreatedBy(username,
+    			FieldSet.parse(fields, EmployeeDto.class));
         return ResponseEntity.ok(empList);
     }
     
@@ -80,13 +117,62 @@ public class EmployeeController {
 	]
      */
     @PostMapping("/employees/filter")
-    public ResponseEntity<List<EmployeeDto>> getEmployeesByFilter(@RequestBody List<SearchFilter> filters) {
-    	List<EmployeeDto> empList = employeeService.getEmployeesByFilter(filters);
+    public ResponseEntity<List<EmployeeDto>> getEmployeesByFilter(@RequestBody List<SearchFilter> filters,
+    		@RequestParam(required = false) String fields) {
+    	List<EmployeeDto> empList = employeeService.getEmployeesByFilter(filters, FieldSet.parse(fields, EmployeeDto.class));
         return ResponseEntity.ok(empList);
     }
     
+    /** Aggregates instead of rows, for the same request body as /employees/filter:
+     *  curl -X POST http://localhost:8080/api/employees/stats -H 'Content-Type: application/json' \
+     *  	-d '[{"columnName":"hireDate","value":"2024-01-01","operation":"greaterThanEqual"}]'
+     */
+    @PostMapping("/employees/stats")
+    public ResponseEntity<EmployeeStats> getEmployeeStats(@RequestBody(required = false) List<SearchFilter> filters) {
+    	EmployeeStats stats = employeeService.getEmployeeStats(Objects.requireNonNullElse(filters, List.of()));
+        return ResponseEntity.ok(stats);
+    }
+    
+    /** Per-department headcount and salary aggregates of the employees matching the filters
+     *  (same request body as /employees/filter; an empty list or no body means all employees).
+     */
+    @PostMapping("/departments/stats")
+    public ResponseEntity<List<DepartmentStats>> getDepartmentStats(@RequestBody(required = false) List<SearchFilter> filters) {
+    	List<DepartmentStats> stats = employeeService.getDepartmentStats(Objects.requireNonNullElse(filters, List.of()));
+        return ResponseEntity.ok(stats);
+    }
+    
+    /** Same request body as /employees/filter. The response is newline-delimited JSON (one EmployeeDto per
+     *  line) written while the rows are read, so it suits exports of any size:
+     *  curl -N -X POST http://localhost:8080/api/employees/filter/stream -H 'Content-Type: application/json' -d '[]'
+     */
+    @PostMapping(value = "/employees/filter/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamEmployeesByFilter(@RequestBody List<SearchFilter> filters) {
+    	StreamingResponseBody body = out -> employeeService.streamEmployeesByFilter(filters, out);
+        return ResponseEntity.ok()
+        		.contentType(MediaType.APPLICATION_NDJSON)
+        		.body(body);
+    }
+    
+    /** Bulk insert. The body is a JSON array or NDJSON of EmployeeDto rows (so an /employees/filter/stream
+     *  export can be loaded back); id is ignored, department and createdBy are given by id or by
+     *  departmentName / createdBy username:
+     *  curl -X POST http://localhost:8080/api/employees/bulk -H 'Content-Type: application/x-ndjson' --data-binary @employees.ndjson
+     */
+    @PostMapping(value = "/employees/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<BulkImportResult> bulkInsertEmployees(InputStream body) throws IOException {
+    	BulkImportResult result = bulkService.importEmployees(body);
+        return ResponseEntity.ok(result);
+    }
+    
     /** Sample request url: 
      * http://localhost:8080/api/employees/search?page=1&size=15&sortBy=id&sortOrder=desc&searchText=Neha
+     * 
+     * For deep scrolling pass the nextCursor of the previous response instead of a page number:
+     * http://localhost:8080/api/employees/search?size=15&sortBy=hireDate&sortOrder=desc&searchText=Neha&after=aGlyZURhdGV8ZGVzY3w0Mnwy...
+     * 
+     * To skip the count query on page turns (the total is then reported from cache when available):
+     * http://localhost:8080/api/employees/search?page=2&size=15&searchText=Neha&withTotal=false
      */
     @GetMapping("/employees/search")
     public ResponseEntity<EmployeeResponse> getPagebleEmployee(
@@ -94,10 +180,38 @@ public class EmployeeController {
     		@RequestParam(required = false) Integer size,
     		@RequestParam(defaultValue = "id") String sortBy,
     		@RequestParam(defaultValue = "asc") String sortOrder,
-    		@RequestParam(required = false) String searchText
+    		@RequestParam(required = false) String searchText,
+    		@RequestParam(required = false) String after,
+    		@RequestParam(defaultValue = "true") boolean withTotal,
+    		@RequestParam(required = false) String fields,
+    		WebRequest request
     		) {
+    	FieldSet fieldSet = FieldSet.parse(fields, EmployeeDto.class);
+    	if (tableVersions.checkNotModified(request, EMPLOYEE_TABLES, page, size, sortBy, sortOrder, searchText, after,
+    			withTotal, fieldSet)) {
+    		return null;
+    	}
     	EmployeeResponse empList = employeeService.getEmployeesBySearch(searchText, page,
-    			size, sortBy, sortOrder);
+    			size, sortBy, sortOrder, after, withTotal, fieldSet);
+        return ResponseEntity.ok(empList);
+    }
+    
+    /** Same parameters and pages as /employees/search, each employee with its projects and the role and
+     *  status of each assignment:
+     * http://localhost:8080/api/employees/projects?page=1&size=15&sortBy=lastName&searchText=Neha
+     */
+    @GetMapping("/employees/projects")
+    public ResponseEntity<EmployeeProjectsResponse> getPagebleEmployeeProjects(
+    		@RequestParam(required = false) Integer page,
+    		@RequestParam(required = false) Integer size,
+    		@RequestParam(defaultValue = "id") String sortBy,
+    		@RequestParam(defaultValue = "asc") String sortOrder,
+    		@RequestParam(required = false) String searchText,
+    		@RequestParam(required = false) String after,
+    		@RequestParam(defaultValue = "true") boolean withTotal
+    		) {
+    	EmployeeProjectsResponse empList = employeeService.getEmployeesWithProjects(searchText, page,
+    			size, sortBy, sortOrder, after, withTotal);
         return ResponseEntity.ok(empList);
     }
     
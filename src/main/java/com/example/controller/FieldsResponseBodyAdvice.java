@@ -0,0 +1,41 @@
+package com.example.controller;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import com.example.config.JacksonConfig;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+/** Writes only the requested fields of EmployeeDto and DepartmentDto rows when the request has a
+ *  fields= parameter. The controller has validated the names already; wrappers such as EmployeeResponse
+ *  and its pageMetadata are written in full. Only applies to JSON, the row format has its own null bitmap.
+ */
+@RestControllerAdvice
+public class FieldsResponseBodyAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+	@Override
+	protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+			MethodParameter returnType, ServerHttpRequest request, ServerHttpResponse response) {
+		if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+			return;
+		}
+		String fields = servletRequest.getServletRequest().getParameter("fields");
+		if (Objects.isNull(fields) || fields.isBlank()) {
+			return;
+		}
+		bodyContainer.setFilters(new SimpleFilterProvider().addFilter(JacksonConfig.FIELDS_FILTER,
+				SimpleBeanPropertyFilter.filterOutAllExcept(Arrays.stream(fields.split(","))
+						.map(String::trim).collect(Collectors.toSet()))));
+	}
+}
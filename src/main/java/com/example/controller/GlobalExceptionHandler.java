@@ -0,0 +1,33 @@
+package com.example.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.example.concurrency.AdmissionRejectedException;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    /** Invalid request input, e.g. a malformed or mismatching pagination cursor. */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ProblemDetail handleIllegalArgument(IllegalArgumentException ex) {
+    	log.warn("Bad request: {}", ex.getMessage());
+    	return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+    
+    /** The database is saturated, the client should back off and retry. */
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<ProblemDetail> handleAdmissionRejected(AdmissionRejectedException ex) {
+    	log.warn("Rejected: {}", ex.getMessage());
+    	return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+    			.header(HttpHeaders.RETRY_AFTER, "1")
+    			.body(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage()));
+    }
+}
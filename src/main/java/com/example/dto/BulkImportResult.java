@@ -0,0 +1,24 @@
+package com.example.dto;
+
+import java.util.List;
+
+import lombok.Builder;
+
+/** Outcome of POST /api/employees/bulk. Chunks are committed independently, so a failed chunk only
+ *  loses its own rows; failures lists every chunk that was rolled back (or not attempted) and why.
+ *  Row numbers are 1-based positions in the request body.
+ */
+@Builder
+public record BulkImportResult(long received,
+							   long inserted,
+							   long failed,
+							   long elapsedMillis,
+							   double rowsPerSecond,
+							   List<ChunkFailure> failures) {
+
+	public record ChunkFailure(int chunk,
+							   long firstRow,
+							   int rows,
+							   String error) {
+	}
+}
@@ -0,0 +1,14 @@
+package com.example.dto;
+
+import java.math.BigDecimal;
+
+/** Headcount and salary aggregates of one department. Departments without (matching) employees are left out. */
+public record DepartmentStats(Long departmentId,
+							  String departmentName,
+							  String location,
+							  Long headcount,
+							  BigDecimal salarySum,
+							  Double salaryAvg,
+							  BigDecimal salaryMin,
+							  BigDecimal salaryMax) {
+}
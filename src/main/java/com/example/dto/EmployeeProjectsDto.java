@@ -0,0 +1,8 @@
+package com.example.dto;
+
+import java.util.List;
+
+/** An employee with each of its project assignments once, ordered by project id. */
+public record EmployeeProjectsDto(EmployeeDto employee,
+								  List<ProjectAssignmentDto> projects) {
+}
@@ -0,0 +1,10 @@
+package com.example.dto;
+
+import java.util.List;
+
+import lombok.Builder;
+
+@Builder
+public record EmployeeProjectsResponse(List<EmployeeProjectsDto> data,
+									   PageMetadata pageMetadata) {
+}
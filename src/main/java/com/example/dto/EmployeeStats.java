@@ -0,0 +1,11 @@
+package com.example.dto;
+
+import java.util.List;
+
+import lombok.Builder;
+
+@Builder
+public record EmployeeStats(SalaryStats salary,
+							List<LocationHeadcount> headcountByLocation,
+							List<MonthlyHires> hiresByMonth) {
+}
@@ -0,0 +1,57 @@
+package com.example.dto;
+
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/** The DTO fields a client asked for with fields=id,firstName,..., or ALL when it did not ask.
+ *  Repositories leave the other fields out of the select list (they come back null) together with any
+ *  join only they need; FieldsResponseBodyAdvice leaves them out of the JSON.
+ */
+public record FieldSet(Set<String> names) {
+
+	public static final FieldSet ALL = new FieldSet(null);
+
+	public static FieldSet parse(String fields, Class<? extends Record> dtoType) {
+		if (Objects.isNull(fields) || fields.isBlank()) {
+			return ALL;
+		}
+		Set<String> known = Arrays.stream(dtoType.getRecordComponents()).map(RecordComponent::getName)
+				.collect(Collectors.toSet());
+		Set<String> names = new LinkedHashSet<>();
+		for (String field : fields.split(",")) {
+			String name = field.trim();
+			if (!known.contains(name)) {
+				throw new IllegalArgumentException("Unknown field: " + name + ", expected any of " + known);
+			}
+			names.add(name);
+		}
+		return new FieldSet(Collections.unmodifiableSet(names));
+	}
+
+	public boolean isAll() {
+		return Objects.isNull(names);
+	}
+
+	public boolean contains(String name) {
+		return isAll() || names.contains(name);
+	}
+
+	public boolean containsAny(String... candidates) {
+		return Arrays.stream(candidates).anyMatch(this::contains);
+	}
+
+	/** This set plus fields the server needs itself, e.g. the sort key for the next cursor. */
+	public FieldSet with(String... required) {
+		if (isAll()) {
+			return this;
+		}
+		Set<String> extended = new LinkedHashSet<>(names);
+		extended.addAll(Arrays.asList(required));
+		return new FieldSet(Collections.unmodifiableSet(extended));
+	}
+}
@@ -0,0 +1,57 @@
+package com.example.dto;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/** Opaque position used by keyset (seek) pagination.
+ *  It carries the sort column and direction it was issued for, the last row's id
+ *  (tie-breaker) and the last row's sort key rendered as text (null when the key was null).
+ */
+public record KeysetCursor(String sortBy,
+						   String sortOrder,
+						   Long id,
+						   String value) {
+
+	private static final String SEPARATOR = "|";
+
+	public boolean descending() {
+		return "desc".equalsIgnoreCase(sortOrder);
+	}
+
+	public boolean matches(String sortBy, String sortOrder) {
+		return this.sortBy.equals(sortBy) && descending() == "desc".equalsIgnoreCase(sortOrder);
+	}
+
+	public static KeysetCursor of(String sortBy, String sortOrder, Long id, Object value) {
+		return new KeysetCursor(sortBy, sortOrder, id, Objects.isNull(value) ? null : render(value));
+	}
+
+	public String encode() {
+		String raw = sortBy + SEPARATOR + (descending() ? "desc" : "asc") + SEPARATOR + id
+				+ (Objects.isNull(value) ? "" : SEPARATOR + value);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static KeysetCursor decode(String token) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			// The value is the last part so it may itself contain the separator
+			String[] parts = raw.split("\\" + SEPARATOR, 4);
+			if (parts.length < 3) {
+				throw new IllegalArgumentException("Invalid cursor: " + token);
+			}
+			return new KeysetCursor(parts[0], parts[1], Long.valueOf(parts[2]), parts.length == 4 ? parts[3] : null);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid cursor: " + token, e);
+		}
+	}
+
+	private static String render(Object value) {
+		if (value instanceof BigDecimal decimal) {
+			return decimal.toPlainString();
+		}
+		return value.toString();
+	}
+}
@@ -0,0 +1,6 @@
+package com.example.dto;
+
+/** location is null for employees without a department. */
+public record LocationHeadcount(String location,
+								Long headcount) {
+}
@@ -0,0 +1,6 @@
+package com.example.dto;
+
+public record MonthlyHires(Integer year,
+						   Integer month,
+						   Long hires) {
+}
@@ -2,10 +2,16 @@ package com.example.dto;
 
 import lombok.Builder;
 
+/** pageNumber is null for keyset pages, which are addressed by nextCursor instead.
+ *  totalPages and totalElements are null when the total was not counted and is not cached;
+ *  totalCached tells that they come from a recent count of the same search rather than this request.
+ */
 @Builder
-public record PageMetadata(int pageNumber,
+public record PageMetadata(Integer pageNumber,
 						   int pageSize,
-						   int totalPages,
+						   Integer totalPages,
 						   int noOfElements,
-						   int totalElements) {
+						   Long totalElements,
+						   boolean totalCached,
+						   String nextCursor) {
 }
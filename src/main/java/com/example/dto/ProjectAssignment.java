@@ -0,0 +1,10 @@
+package com.example.dto;
+
+/** One employee_projects row: the project an employee is assigned to, with the role and status of the
+ *  assignment. The project itself is loaded separately, once per page for all its employees.
+ */
+public record ProjectAssignment(Long employeeId,
+								Long projectId,
+								String role,
+								String status) {
+}
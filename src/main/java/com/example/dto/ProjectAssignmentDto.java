@@ -0,0 +1,15 @@
+package com.example.dto;
+
+import java.time.LocalDate;
+
+import lombok.Builder;
+
+@Builder
+public record ProjectAssignmentDto(Long projectId,
+								   String projectName,
+								   String category,
+								   LocalDate startDate,
+								   LocalDate endDate,
+								   String role,
+								   String status) {
+}
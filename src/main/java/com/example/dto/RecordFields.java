@@ -0,0 +1,37 @@
+package com.example.dto;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.RecordComponent;
+import java.util.function.Function;
+
+/** Reads a DTO record component by name, e.g. the sort key of the last row of a page. */
+public class RecordFields {
+
+	public static Object read(Record dto, String name) {
+		return RecordFields.<Record>accessor(dto.getClass(), name).apply(dto);
+	}
+
+	/** The accessor of a component, looked up once, for reading it from many rows (e.g. in a merge). */
+	public static <R extends Record> Function<R, Object> accessor(Class<? extends R> type, String name) {
+		for (RecordComponent component : type.getRecordComponents()) {
+			if (component.getName().equals(name)) {
+				MethodHandle handle;
+				try {
+					handle = MethodHandles.publicLookup().unreflect(component.getAccessor());
+				} catch (IllegalAccessException e) {
+					throw new IllegalStateException("Cannot read " + name + " of " + type.getSimpleName(), e);
+				}
+				return dto -> {
+					try {
+						return handle.invoke(dto);
+					} catch (Throwable e) {
+						throw new IllegalStateException("Cannot read " + name + " of " + type.getSimpleName(), e);
+					}
+				};
+			}
+		}
+		throw new IllegalArgumentException("Unknown field: " + name);
+	}
+
+}
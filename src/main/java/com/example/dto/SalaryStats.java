@@ -0,0 +1,11 @@
+package com.example.dto;
+
+import java.math.BigDecimal;
+
+/** Aggregates of salary over a set of employees; sum, avg, min and max are null when it is empty. */
+public record SalaryStats(Long count,
+						  BigDecimal sum,
+						  Double avg,
+						  BigDecimal min,
+						  BigDecimal max) {
+}
@@ -5,13 +5,20 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.example.listener.EntityChangeListener;
+
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
@@ -22,7 +29,11 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "departments")
+@EntityListeners(EntityChangeListener.class)
+@Table(name = "departments", indexes = {
+		@Index(name = "idx_departments_location_budget", columnList = "location, budget"),
+		@Index(name = "idx_departments_name", columnList = "department_name") })
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "departments")
 @Data
 @Builder
 @NoArgsConstructor
@@ -55,6 +66,8 @@ public class Department implements Serializable {
     private LocalDateTime createdAt;
 
     // Relationships
+    // Caches only the employee ids, the Employee rows themselves are still read from the database
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "department-employees")
     @OneToMany(mappedBy = "department", cascade = CascadeType.ALL, orphanRemoval = false, fetch = FetchType.LAZY)
     private List<Employee> employees;
 
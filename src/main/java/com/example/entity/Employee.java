@@ -6,24 +6,37 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.example.listener.EntityChangeListener;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Entity
-@Table(name = "employees")
+@EntityListeners(EntityChangeListener.class)
+@Table(name = "employees", indexes = {
+		@Index(name = "idx_employees_first_name", columnList = "first_name"),
+		@Index(name = "idx_employees_last_name", columnList = "last_name") })
 @Data
 @Builder
 @NoArgsConstructor
@@ -62,6 +75,7 @@ public class Employee implements Serializable {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "employee-projects")
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "employee_projects",
@@ -70,5 +84,11 @@ public class Employee implements Serializable {
     )
     private List<Project> projects;
 
+    // The same rows as projects, with their role and status; used to filter on those
+    @OneToMany(mappedBy = "employee", fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<EmployeeProject> assignments;
+
 }
 
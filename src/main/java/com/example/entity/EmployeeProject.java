@@ -2,9 +2,12 @@ package com.example.entity;
 
 import java.io.Serializable;
 
+import com.example.listener.EntityChangeListener;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.EmbeddedId;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.MapsId;
@@ -15,6 +18,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
+@EntityListeners(EntityChangeListener.class)
 @Table(name = "employee_projects")
 @Data
 @Builder
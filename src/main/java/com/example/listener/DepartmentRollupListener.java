@@ -0,0 +1,121 @@
+package com.example.listener;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.entity.Department;
+import com.example.entity.Employee;
+import com.example.repository.EmployeeStatsRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/** Keeps department_salary_rollup current when app.stats.rollup.enabled is set. Every department whose
+ *  employees changed in a transaction (the new department from the EntityChangedEvent, and the previous
+ *  one of an employee that moved, from Hibernate's old state) is recomputed once, right after the commit,
+ *  in a transaction of its own. The whole table is rebuilt when the application starts.
+ */
+@Slf4j
+@Component
+public class DepartmentRollupListener implements PostUpdateEventListener {
+
+	private static final long serialVersionUID = -2250409317462117540L;
+
+	private final boolean enabled;
+	private final transient EmployeeStatsRepository statsRepo;
+	private final transient TransactionTemplate requiresNew;
+
+	public DepartmentRollupListener(EmployeeStatsRepository statsRepo, PlatformTransactionManager transactionManager,
+			EntityManagerFactory emf, @Value("${app.stats.rollup.enabled:false}") boolean enabled) {
+		this.enabled = enabled;
+		this.statsRepo = statsRepo;
+		this.requiresNew = new TransactionTemplate(transactionManager);
+		this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		if (enabled) {
+			emf.unwrap(SessionFactoryImplementor.class).getServiceRegistry()
+					.getService(EventListenerRegistry.class)
+					.appendListeners(EventType.POST_UPDATE, this);
+		}
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		if (!enabled) return;
+		long start = System.currentTimeMillis();
+		requiresNew.executeWithoutResult(status -> statsRepo.rebuildRollup());
+		log.info("Department salary rollup rebuilt in {} ms", System.currentTimeMillis() - start);
+	}
+
+	/** Runs while the change is flushed, before the commit. */
+	@EventListener
+	public void onEntityChanged(EntityChangedEvent event) {
+		if (!enabled) return;
+		if (event.entity() instanceof Employee emp && Objects.nonNull(emp.getDepartment())) {
+			changed(emp.getDepartment().getId());
+		} else if (event.entity() instanceof Department dept) {
+			changed(dept.getId());
+		}
+	}
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		if (event.getEntity() instanceof Employee) {
+			int index = event.getPersister().getPropertyIndex("department");
+			if (Objects.nonNull(event.getOldState()) && event.getOldState()[index] instanceof Department previous) {
+				changed(previous.getId());
+			}
+		}
+	}
+
+	@Override
+	public boolean requiresPostCommitHandling(EntityPersister persister) {
+		return false;
+	}
+
+	private void changed(Long departmentId) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			requiresNew.executeWithoutResult(status -> statsRepo.rebuildRollup(Set.of(departmentId)));
+			return;
+		}
+		Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+		if (Objects.isNull(pending)) {
+			pending = new Pending();
+			TransactionSynchronizationManager.bindResource(this, pending);
+			TransactionSynchronizationManager.registerSynchronization(pending);
+		}
+		pending.departmentIds.add(departmentId);
+	}
+
+	/** The departments changed by one transaction. */
+	private final class Pending implements TransactionSynchronization {
+
+		private final Set<Long> departmentIds = new TreeSet<>();
+
+		@Override
+		public void afterCommit() {
+			requiresNew.executeWithoutResult(status -> statsRepo.rebuildRollup(departmentIds));
+		}
+
+		@Override
+		public void afterCompletion(int status) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(DepartmentRollupListener.this);
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package com.example.listener;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.example.listener.EntityChangedEvent.ChangeType;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/** JPA entity listener that turns lifecycle callbacks into Spring EntityChangedEvents.
+ *  Hibernate obtains it from the Spring context, so it can have dependencies injected.
+ */
+@Component
+public class EntityChangeListener {
+
+	private final ApplicationEventPublisher publisher;
+
+	public EntityChangeListener(ApplicationEventPublisher publisher) {
+		this.publisher = publisher;
+	}
+
+	@PostPersist
+	public void afterInsert(Object entity) {
+		publisher.publishEvent(new EntityChangedEvent(entity, ChangeType.INSERT));
+	}
+
+	@PostUpdate
+	public void afterUpdate(Object entity) {
+		publisher.publishEvent(new EntityChangedEvent(entity, ChangeType.UPDATE));
+	}
+
+	@PostRemove
+	public void afterDelete(Object entity) {
+		publisher.publishEvent(new EntityChangedEvent(entity, ChangeType.DELETE));
+	}
+}
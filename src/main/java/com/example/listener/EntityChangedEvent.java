@@ -0,0 +1,15 @@
+package com.example.listener;
+
+/** Published for every insert, update and delete of an entity that has EntityChangeListener attached.
+ *  Handlers that maintain in-memory state should use @TransactionalEventListener so that they only see
+ *  committed changes.
+ */
+public record EntityChangedEvent(Object entity,
+								 ChangeType type) {
+
+	public enum ChangeType { INSERT, UPDATE, DELETE }
+
+	public boolean isFor(Class<?> entityType) {
+		return entityType.isInstance(entity);
+	}
+}
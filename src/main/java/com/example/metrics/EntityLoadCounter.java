@@ -0,0 +1,30 @@
+package com.example.metrics;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/** Hibernate post-load listener that counts every hydrated entity (from a result set or the
+ *  second-level cache) towards the open QueryMetrics sample.
+ */
+@Component
+public class EntityLoadCounter implements PostLoadEventListener {
+
+	private static final long serialVersionUID = 4197338571046203715L;
+
+	public EntityLoadCounter(EntityManagerFactory emf) {
+		emf.unwrap(SessionFactoryImplementor.class).getServiceRegistry()
+				.getService(EventListenerRegistry.class)
+				.appendListeners(EventType.POST_LOAD, this);
+	}
+
+	@Override
+	public void onPostLoad(PostLoadEvent event) {
+		QueryMetrics.entityLoaded();
+	}
+}
@@ -0,0 +1,153 @@
+package com.example.metrics;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.dto.SearchFilter;
+
+/** Which SearchFilter shapes the application actually runs, and what they cost. A shape is the entity
+ *  and the set of (column, operation) pairs of a filter list, regardless of their order and values.
+ *  QueryMetrics reports every call that filtered with a shape, with its latency and the rows it returned.
+ *  Recording is lock-free (LongAdder, atomic histogram buckets); at most maxShapes distinct shapes are
+ *  kept, calls with further shapes are only counted as dropped.
+ */
+@Component
+public class FilterWorkload {
+
+	private final boolean enabled;
+	private final int maxShapes;
+	private final Map<Shape, ShapeStats> shapes = new ConcurrentHashMap<>();
+	private final LongAdder dropped = new LongAdder();
+
+	public FilterWorkload(@Value("${app.workload.enabled:true}") boolean enabled,
+			@Value("${app.workload.max-shapes:500}") int maxShapes) {
+		this.enabled = enabled;
+		this.maxShapes = maxShapes;
+	}
+
+	public record Term(String column, String operation) {
+	}
+
+	public record Shape(Class<?> entityType, List<Term> terms) {
+
+		public static Shape of(Class<?> entityType, List<SearchFilter> filters) {
+			List<Term> terms = filters.stream()
+					.map(filter -> new Term(filter.columnName(), filter.operation()))
+					.distinct()
+					.sorted(Comparator.comparing(Term::column).thenComparing(Term::operation))
+					.toList();
+			return new Shape(entityType, terms);
+		}
+	}
+
+	public record ShapeSummary(Shape shape, long calls, long rows, double meanRows, double p50Ms, double p99Ms,
+			double maxMs, double totalMs) {
+	}
+
+	void record(Shape shape, long latencyNanos, long rows) {
+		if (!enabled) return;
+		ShapeStats stats = shapes.get(shape);
+		if (Objects.isNull(stats)) {
+			if (shapes.size() >= maxShapes) {
+				dropped.increment();
+				return;
+			}
+			stats = shapes.computeIfAbsent(shape, key -> new ShapeStats());
+		}
+		stats.record(latencyNanos, rows);
+	}
+
+	/** The n shapes with the most total time spent in them. */
+	public List<ShapeSummary> top(int n) {
+		return shapes.entrySet().stream()
+				.map(entry -> entry.getValue().summary(entry.getKey()))
+				.sorted(Comparator.comparingDouble(ShapeSummary::totalMs).reversed())
+				.limit(n)
+				.toList();
+	}
+
+	public long dropped() {
+		return dropped.sum();
+	}
+
+	public void reset() {
+		shapes.clear();
+		dropped.reset();
+	}
+
+	private static final class ShapeStats {
+		private final LongAdder calls = new LongAdder();
+		private final LongAdder rows = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+		private final LatencyHistogram latency = new LatencyHistogram();
+
+		void record(long latencyNanos, long rowCount) {
+			calls.increment();
+			rows.add(rowCount);
+			totalNanos.add(latencyNanos);
+			maxNanos.accumulate(latencyNanos);
+			latency.record(latencyNanos);
+		}
+
+		ShapeSummary summary(Shape shape) {
+			long callCount = calls.sum();
+			long rowCount = rows.sum();
+			return new ShapeSummary(shape, callCount, rowCount, callCount == 0 ? 0 : (double) rowCount / callCount,
+					latency.percentileMs(0.5), latency.percentileMs(0.99), maxNanos.get() / 1e6, totalNanos.sum() / 1e6);
+		}
+	}
+
+	/** Log-linear buckets of microseconds, four per power of two, so a percentile is off by at most 25%. */
+	static final class LatencyHistogram {
+		private final AtomicLongArray buckets = new AtomicLongArray(4 * 64);
+
+		void record(long nanos) {
+			buckets.incrementAndGet(bucket(Math.max(1, nanos / 1000)));
+		}
+
+		double percentileMs(double percentile) {
+			long total = 0;
+			for (int i = 0; i < buckets.length(); i++) {
+				total += buckets.get(i);
+			}
+			if (total == 0) return 0;
+			long rank = (long) Math.ceil(percentile * total);
+			long seen = 0;
+			for (int i = 0; i < buckets.length(); i++) {
+				seen += buckets.get(i);
+				if (seen >= rank) {
+					return upperBoundMicros(i) / 1000.0;
+				}
+			}
+			return upperBoundMicros(buckets.length() - 1) / 1000.0;
+		}
+
+		static int bucket(long micros) {
+			int exponent = 63 - Long.numberOfLeadingZeros(micros);
+			if (exponent < 2) {
+				return (int) micros;
+			}
+			int sub = (int) ((micros >>> (exponent - 2)) & 3);
+			return 4 * (exponent - 1) + sub;
+		}
+
+		static long upperBoundMicros(int bucket) {
+			if (bucket < 4) {
+				return bucket;
+			}
+			int exponent = bucket / 4 + 1;
+			int sub = bucket % 4;
+			return (5L + sub) << (exponent - 2);
+		}
+	}
+}
@@ -0,0 +1,234 @@
+package com.example.metrics;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.sql.DataSource;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.metrics.FilterWorkload.ShapeSummary;
+import com.example.metrics.FilterWorkload.Term;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import lombok.extern.slf4j.Slf4j;
+
+/** Proposes composite indexes for the recorded filter shapes. Per shape and table the columns are
+ *  ordered the way a B-tree can use them: equality columns first, then 'in' columns, then a single range
+ *  column (comparisons and startsWith), since nothing after the first range column can be seeked.
+ *  'like' (contains) and 'notEqual' cannot use an index and are left out. Proposals that are a prefix
+ *  of another proposal, or of an index the table already has, are reported as covered rather than
+ *  proposed again.
+ */
+@Slf4j
+@Component
+public class IndexAdvisor {
+
+	private static final int MAX_IDENTIFIER_LENGTH = 64;
+
+	private final SessionFactoryImplementor sessionFactory;
+	private final DataSource dataSource;
+	private final Set<String> tables;
+
+	public IndexAdvisor(EntityManagerFactory emf, DataSource dataSource,
+			@Value("${app.workload.advise-tables:employees,departments,projects}") Set<String> tables) {
+		this.sessionFactory = emf.unwrap(SessionFactoryImplementor.class);
+		this.dataSource = dataSource;
+		this.tables = tables;
+	}
+
+	/** @param calls      calls of the shapes this index would serve
+	 *  @param coveredBy  the existing index, or proposed one, whose leading columns are these; null when
+	 *                    the index is missing and ddl should be run
+	 */
+	public record IndexProposal(String table, List<String> columns, long calls, double totalMs, String ddl,
+			String coveredBy) {
+	}
+
+	public List<IndexProposal> propose(List<ShapeSummary> shapes) {
+		Map<String, Candidate> candidates = new LinkedHashMap<>();
+		for (ShapeSummary summary : shapes) {
+			indexColumns(summary.shape().entityType(), summary.shape().terms()).forEach((table, columns) -> {
+				if (!columns.isEmpty() && tables.contains(table)) {
+					candidates.computeIfAbsent(table + columns, key -> new Candidate(table, columns)).add(summary);
+				}
+			});
+		}
+		Map<String, List<List<String>>> existing = existingIndexes(candidates.values().stream()
+				.map(Candidate::table).distinct().toList());
+
+		List<IndexProposal> proposals = new ArrayList<>();
+		for (Candidate candidate : candidates.values()) {
+			String coveredBy = coveredBy(candidate, existing.getOrDefault(candidate.table(), List.of()), candidates.values());
+			proposals.add(new IndexProposal(candidate.table(), candidate.columns(), candidate.calls, candidate.totalMs,
+					coveredBy == null ? ddl(candidate.table(), candidate.columns()) : null, coveredBy));
+		}
+		proposals.sort(Comparator.comparingDouble(IndexProposal::totalMs).reversed());
+		return proposals;
+	}
+
+	/** Index columns per table for one shape; dotted paths belong to the table of the joined entity. */
+	private Map<String, List<String>> indexColumns(Class<?> entityType, List<Term> terms) {
+		Map<String, TreeMap<Integer, List<String>>> ranked = new LinkedHashMap<>();
+		for (Term term : terms) {
+			int rank = switch (term.operation()) {
+				case "equal" -> 0;
+				case "in" -> 1;
+				case "greaterThan", "lessThan", "greaterThanEqual", "lessThanEqual", "startsWith" -> 2;
+				default -> -1;
+			};
+			if (rank < 0) continue;
+			Column column;
+			try {
+				column = column(entityType, term.column());
+			} catch (IllegalArgumentException | ClassCastException | MappingException e) {
+				// Not a column of a mapped entity, e.g. a path through a collection
+				continue;
+			}
+			List<String> columns = ranked.computeIfAbsent(column.table(), key -> new TreeMap<>())
+					.computeIfAbsent(rank, key -> new ArrayList<>());
+			if (!columns.contains(column.name())) {
+				columns.add(column.name());
+			}
+		}
+		Map<String, List<String>> indexColumns = new LinkedHashMap<>();
+		ranked.forEach((table, byRank) -> {
+			List<String> columns = new ArrayList<>();
+			byRank.forEach((rank, names) -> {
+				// Only the first range column can be seeked, the ones after it would just widen the index
+				if (rank == 2) {
+					names.stream().filter(name -> !columns.contains(name)).findFirst().ifPresent(columns::add);
+				} else {
+					names.stream().sorted().filter(name -> !columns.contains(name)).forEach(columns::add);
+				}
+			});
+			indexColumns.put(table, columns);
+		});
+		return indexColumns;
+	}
+
+	private record Column(String table, String name) {
+	}
+
+	private Column column(Class<?> entityType, String path) {
+		ManagedType<?> type = sessionFactory.getJpaMetamodel().managedType(entityType);
+		String[] parts = path.split("\\.");
+		for (int i = 0; i < parts.length - 1; i++) {
+			Attribute<?, ?> attribute = type.getAttribute(parts[i]);
+			type = (ManagedType<?>) ((SingularAttribute<?, ?>) attribute).getType();
+		}
+		Class<?> owner = ((EntityType<?>) type).getJavaType();
+		AbstractEntityPersister persister = (AbstractEntityPersister) sessionFactory.getMappingMetamodel()
+				.getEntityDescriptor(owner);
+		return new Column(persister.getTableName().toLowerCase(Locale.ROOT),
+				persister.getPropertyColumnNames(parts[parts.length - 1])[0].toLowerCase(Locale.ROOT));
+	}
+
+	private static String coveredBy(Candidate candidate, List<List<String>> existing, Collection<Candidate> proposed) {
+		for (List<String> index : existing) {
+			if (startsWith(index.subList(1, index.size()), candidate.columns())) {
+				return index.get(0);
+			}
+		}
+		for (Candidate other : proposed) {
+			if (other != candidate && other.table().equals(candidate.table())
+					&& other.columns().size() > candidate.columns().size()
+					&& startsWith(other.columns(), candidate.columns())) {
+				return ddl(other.table(), other.columns());
+			}
+		}
+		return null;
+	}
+
+	private static boolean startsWith(List<String> columns, List<String> prefix) {
+		return columns.size() >= prefix.size() && columns.subList(0, prefix.size()).equals(prefix);
+	}
+
+	private static String ddl(String table, List<String> columns) {
+		String name = "idx_" + table + "_" + String.join("_", columns);
+		if (name.length() > MAX_IDENTIFIER_LENGTH) {
+			name = name.substring(0, MAX_IDENTIFIER_LENGTH);
+		}
+		return "CREATE INDEX " + name + " ON " + table + " (" + String.join(", ", columns) + ");";
+	}
+
+	/** Indexes per table from the JDBC metadata, each as its name followed by its columns in order. */
+	private Map<String, List<List<String>>> existingIndexes(List<String> tableNames) {
+		Map<String, List<List<String>>> indexes = new HashMap<>();
+		try (Connection connection = dataSource.getConnection()) {
+			DatabaseMetaData metaData = connection.getMetaData();
+			for (String table : tableNames) {
+				Map<String, TreeMap<Short, String>> columnsByIndex = new LinkedHashMap<>();
+				for (String name : List.of(table, table.toUpperCase(Locale.ROOT))) {
+					try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), null, name, false, true)) {
+						while (rs.next()) {
+							String index = rs.getString("INDEX_NAME");
+							String column = rs.getString("COLUMN_NAME");
+							if (index != null && column != null) {
+								columnsByIndex.computeIfAbsent(index, key -> new TreeMap<>())
+										.put(rs.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+							}
+						}
+					}
+					if (!columnsByIndex.isEmpty()) break;
+				}
+				List<List<String>> tableIndexes = new ArrayList<>();
+				columnsByIndex.forEach((index, columns) -> {
+					List<String> entry = new ArrayList<>();
+					entry.add(index);
+					entry.addAll(columns.values());
+					tableIndexes.add(entry);
+				});
+				indexes.put(table, tableIndexes);
+			}
+		} catch (SQLException e) {
+			log.warn("Could not read the existing indexes, proposing without them", e);
+		}
+		return indexes;
+	}
+
+	private static final class Candidate {
+		private final String table;
+		private final List<String> columns;
+		private long calls;
+		private double totalMs;
+
+		Candidate(String table, List<String> columns) {
+			this.table = table;
+			this.columns = columns;
+		}
+
+		String table() {
+			return table;
+		}
+
+		List<String> columns() {
+			return columns;
+		}
+
+		void add(ShapeSummary summary) {
+			calls += summary.calls();
+			totalMs += summary.totalMs();
+		}
+	}
+}
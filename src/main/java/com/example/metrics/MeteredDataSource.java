@@ -0,0 +1,65 @@
+package com.example.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/** Reports JDBC activity to the QueryMetrics sample of the current thread: each statement execution
+ *  with its duration. Connections and the statements they create are wrapped in JDK proxies, result sets
+ *  are handed out unwrapped so reading the rows costs no proxy dispatch per column; the rows a call
+ *  returns are counted by QueryMetrics instead. Installed around the application DataSource by
+ *  QueryMetricsConfig.
+ */
+public class MeteredDataSource extends DelegatingDataSource {
+
+	public MeteredDataSource(DataSource target) {
+		super(target);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return proxy(Connection.class, super.getConnection());
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return proxy(Connection.class, super.getConnection(username, password));
+	}
+
+	private static <T> T proxy(Class<T> type, T target) {
+		InvocationHandler handler = (proxy, method, args) -> invoke(target, method, args);
+		return type.cast(Proxy.newProxyInstance(MeteredDataSource.class.getClassLoader(), new Class<?>[] { type }, handler));
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			if (target instanceof Statement && method.getName().startsWith("execute")) {
+				long start = System.nanoTime();
+				Object result = method.invoke(target, args);
+				QueryMetrics.statementExecuted(System.nanoTime() - start);
+				return result;
+			}
+			return wrap(method, method.invoke(target, args));
+		} catch (InvocationTargetException ex) {
+			throw ex.getCause();
+		}
+	}
+
+	/** Statements a connection creates are wrapped as well, under the interface the method declares. */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Object wrap(Method method, Object result) {
+		Class returnType = method.getReturnType();
+		if (result instanceof Statement && returnType.isInterface() && Statement.class.isAssignableFrom(returnType)) {
+			return proxy(returnType, result);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,184 @@
+package com.example.metrics;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import com.example.dto.EmployeeProjectsResponse;
+import com.example.dto.EmployeeResponse;
+import com.example.dto.SearchFilter;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/** Per-call query metrics for the service methods. record() opens a sample on the current thread; while
+ *  it is open, MeteredDataSource reports every JDBC statement (execution time) and EntityLoadCounter
+ *  every entity Hibernate hydrates. When the call returns the totals are recorded,
+ *  tagged with the service method and the kind of specification it ran:
+ *   app.query             latency of the whole call
+ *   app.query.statements  SQL statements executed
+ *   app.query.jdbc        time spent executing them (not counting reading the rows)
+ *   app.query.rows        rows the call returned: the size of a list, a page or the data of a response
+ *                         page, one for any other result; calls that stream their rows report them
+ *   app.query.entities    entities hydrated
+ *   app.query.mapping     time spent building DTOs and responses in Java; projections that Hibernate
+ *                         builds inside the query are part of the query time instead
+ *  Percentiles and histograms are configured under management.metrics.distribution in application.yml.
+ *  Calls that filtered with a SearchFilter list (see filters()) are also reported to FilterWorkload.
+ */
+@Component
+public class QueryMetrics {
+
+	private static final ThreadLocal<Sample> CURRENT = new ThreadLocal<>();
+
+	private final MeterRegistry registry;
+	private final FilterWorkload workload;
+	private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+	public QueryMetrics(MeterRegistry registry, FilterWorkload workload) {
+		this.registry = registry;
+		this.workload = workload;
+	}
+
+	@FunctionalInterface
+	public interface Call<T, E extends Exception> {
+		T call() throws E;
+	}
+
+	/** Runs the call as one sample. A nested record() joins the sample that is already open. */
+	public <T, E extends Exception> T record(String method, String specification, Call<T, E> call) throws E {
+		if (Objects.nonNull(CURRENT.get())) {
+			return call.call();
+		}
+		Sample sample = new Sample(specification);
+		CURRENT.set(sample);
+		long start = System.nanoTime();
+		boolean completed = false;
+		try {
+			T result = call.call();
+			completed = true;
+			sample.rows += returnedRows(result);
+			return result;
+		} finally {
+			CURRENT.remove();
+			long latencyNanos = System.nanoTime() - start;
+			meters(method, sample.specification).record(sample, latencyNanos);
+			// Failed calls are left out, a shape rejected for an unknown column is no workload to index for
+			if (completed && Objects.nonNull(sample.filterShape)) {
+				workload.record(sample.filterShape, latencyNanos, sample.rows);
+			}
+		}
+	}
+
+	/** Replaces the specification tag of the open sample, for methods that pick the specification at run time. */
+	public static void specification(String specification) {
+		Sample sample = CURRENT.get();
+		if (Objects.nonNull(sample)) {
+			sample.specification = specification;
+		}
+	}
+
+	/** Marks the open sample as filtered with the given SearchFilter list, for FilterWorkload. */
+	public static void filters(Class<?> entityType, List<SearchFilter> filters) {
+		Sample sample = CURRENT.get();
+		if (Objects.nonNull(sample) && Objects.nonNull(filters) && !filters.isEmpty()) {
+			sample.filterShape = FilterWorkload.Shape.of(entityType, filters);
+		}
+	}
+
+	public static <T> T mapping(Supplier<T> mapper) {
+		Sample sample = CURRENT.get();
+		if (Objects.isNull(sample)) {
+			return mapper.get();
+		}
+		long start = System.nanoTime();
+		try {
+			return mapper.get();
+		} finally {
+			sample.mappingNanos += System.nanoTime() - start;
+		}
+	}
+
+	static void statementExecuted(long nanos) {
+		Sample sample = CURRENT.get();
+		if (Objects.nonNull(sample)) {
+			sample.statements++;
+			sample.jdbcNanos += nanos;
+		}
+	}
+
+	/** Adds rows to the open sample, for calls that stream their rows instead of returning them. */
+	public static void rows(long rows) {
+		Sample sample = CURRENT.get();
+		if (Objects.nonNull(sample)) {
+			sample.rows += rows;
+		}
+	}
+
+	private static long returnedRows(Object result) {
+		if (result instanceof Collection<?> rows) return rows.size();
+		if (result instanceof Slice<?> page) return page.getNumberOfElements();
+		if (result instanceof EmployeeResponse page) return Objects.isNull(page.data()) ? 0 : page.data().size();
+		if (result instanceof EmployeeProjectsResponse page) return Objects.isNull(page.data()) ? 0 : page.data().size();
+		return Objects.isNull(result) ? 0 : 1;
+	}
+
+	static void entityLoaded() {
+		Sample sample = CURRENT.get();
+		if (Objects.nonNull(sample)) {
+			sample.entities++;
+		}
+	}
+
+	private Meters meters(String method, String specification) {
+		return meters.computeIfAbsent(method + '|' + specification, key -> new Meters(
+				Timer.builder("app.query").description("Service method latency")
+						.tags("method", method, "spec", specification).register(registry),
+				DistributionSummary.builder("app.query.statements").description("SQL statements per call")
+						.tags("method", method, "spec", specification).register(registry),
+				Timer.builder("app.query.jdbc").description("JDBC execution time per call")
+						.tags("method", method, "spec", specification).register(registry),
+				DistributionSummary.builder("app.query.rows").description("Rows returned per call")
+						.tags("method", method, "spec", specification).register(registry),
+				DistributionSummary.builder("app.query.entities").description("Entities hydrated per call")
+						.tags("method", method, "spec", specification).register(registry),
+				Timer.builder("app.query.mapping").description("DTO mapping time per call")
+						.tags("method", method, "spec", specification).register(registry)));
+	}
+
+	/** Counters of one call; only ever touched by the thread that runs it. */
+	private static final class Sample {
+		private String specification;
+		private FilterWorkload.Shape filterShape;
+		private int statements;
+		private long jdbcNanos;
+		private long rows;
+		private long entities;
+		private long mappingNanos;
+
+		private Sample(String specification) {
+			this.specification = specification;
+		}
+	}
+
+	private record Meters(Timer latency, DistributionSummary statements, Timer jdbc, DistributionSummary rows,
+			DistributionSummary entities, Timer mapping) {
+
+		void record(Sample sample, long latencyNanos) {
+			latency.record(latencyNanos, TimeUnit.NANOSECONDS);
+			statements.record(sample.statements);
+			jdbc.record(sample.jdbcNanos, TimeUnit.NANOSECONDS);
+			rows.record(sample.rows);
+			entities.record(sample.entities);
+			mapping.record(sample.mappingNanos, TimeUnit.NANOSECONDS);
+		}
+	}
+}
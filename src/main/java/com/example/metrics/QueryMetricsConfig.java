@@ -0,0 +1,24 @@
+package com.example.metrics;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class QueryMetricsConfig {
+
+	/** Wraps the application DataSource so that JDBC activity is reported to QueryMetrics. */
+	@Bean
+	public static BeanPostProcessor meteredDataSourcePostProcessor() {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				return bean instanceof DataSource dataSource && !(bean instanceof MeteredDataSource)
+						? new MeteredDataSource(dataSource)
+						: bean;
+			}
+		};
+	}
+}
@@ -0,0 +1,64 @@
+package com.example.metrics;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+/** /actuator/queries: latency percentiles per service method and specification (app.query) and per
+ *  endpoint (http.server.requests), in milliseconds. The Prometheus scrape only carries the histogram
+ *  buckets, this reads the percentiles configured under management.metrics.distribution.percentiles.
+ */
+@Component
+@Endpoint(id = "queries")
+public class QueryMetricsEndpoint {
+
+	private final MeterRegistry registry;
+
+	public QueryMetricsEndpoint(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	public record Latency(Map<String, String> tags, long count, double meanMs, double maxMs, Map<String, Double> percentilesMs) {
+	}
+
+	@ReadOperation
+	public Map<String, List<Latency>> queries() {
+		Map<String, List<Latency>> latencies = new LinkedHashMap<>();
+		latencies.put("app.query", latencies("app.query"));
+		latencies.put("http.server.requests", latencies("http.server.requests"));
+		return latencies;
+	}
+
+	private List<Latency> latencies(String name) {
+		return registry.find(name).timers().stream()
+				.map(QueryMetricsEndpoint::latency)
+				.sorted(Comparator.comparing((Latency latency) -> latency.tags().toString()))
+				.toList();
+	}
+
+	private static Latency latency(Timer timer) {
+		HistogramSnapshot snapshot = timer.takeSnapshot();
+		Map<String, String> tags = new LinkedHashMap<>();
+		for (Tag tag : timer.getId().getTags()) {
+			tags.put(tag.getKey(), tag.getValue());
+		}
+		Map<String, Double> percentiles = new LinkedHashMap<>();
+		for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+			percentiles.put("p" + Math.round(percentile.percentile() * 100), percentile.value(TimeUnit.MILLISECONDS));
+		}
+		return new Latency(tags, snapshot.count(), snapshot.mean(TimeUnit.MILLISECONDS),
+				snapshot.max(TimeUnit.MILLISECONDS), percentiles);
+	}
+}
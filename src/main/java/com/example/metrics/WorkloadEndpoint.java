@@ -0,0 +1,44 @@
+package com.example.metrics;
+
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import com.example.metrics.FilterWorkload.ShapeSummary;
+import com.example.metrics.IndexAdvisor.IndexProposal;
+
+/** /actuator/workload: the most expensive SearchFilter shapes (by total time) and the indexes proposed
+ *  for them, e.g. GET /actuator/workload?top=10. DELETE /actuator/workload starts recording afresh.
+ */
+@Component
+@Endpoint(id = "workload")
+public class WorkloadEndpoint {
+
+	private static final int DEFAULT_TOP = 20;
+
+	private final FilterWorkload workload;
+	private final IndexAdvisor advisor;
+
+	public WorkloadEndpoint(FilterWorkload workload, IndexAdvisor advisor) {
+		this.workload = workload;
+		this.advisor = advisor;
+	}
+
+	public record Workload(List<ShapeSummary> shapes, long droppedCalls, List<IndexProposal> indexes) {
+	}
+
+	@ReadOperation
+	public Workload workload(@Nullable Integer top) {
+		List<ShapeSummary> shapes = workload.top(top == null ? DEFAULT_TOP : top);
+		return new Workload(shapes, workload.dropped(), advisor.propose(shapes));
+	}
+
+	@DeleteOperation
+	public void reset() {
+		workload.reset();
+	}
+}
@@ -0,0 +1,31 @@
+package com.example.replica;
+
+import com.example.metrics.QueryMetrics.Call;
+
+/** Marks the calls of the current thread as read-only, so that ReadWriteRoutingDataSource may serve them
+ *  from a replica even outside a read-only transaction (the DTO queries of the repositories run without
+ *  one). Has no effect unless app.replicas is enabled.
+ */
+public final class ReadOnlyContext {
+
+	private static final ThreadLocal<Boolean> READ_ONLY = new ThreadLocal<>();
+
+	private ReadOnlyContext() {
+	}
+
+	public static boolean isReadOnly() {
+		return Boolean.TRUE.equals(READ_ONLY.get());
+	}
+
+	public static <T, E extends Exception> T call(Call<T, E> call) throws E {
+		if (isReadOnly()) {
+			return call.call();
+		}
+		READ_ONLY.set(Boolean.TRUE);
+		try {
+			return call.call();
+		} finally {
+			READ_ONLY.remove();
+		}
+	}
+}
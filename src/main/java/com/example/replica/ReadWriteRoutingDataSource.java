@@ -0,0 +1,129 @@
+package com.example.replica;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.replica.ReplicaProperties.Balance;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/** Sends read-only work to a replica and everything else to the primary. Work is read-only inside a
+ *  read-only transaction or a ReadOnlyContext call; a session that wrote recently (RecentWrites) reads
+ *  from the primary regardless. Replicas are picked round-robin or by fewest active connections; one
+ *  that fails to hand out a connection is skipped for app.replicas.retry-down-after and the read goes to
+ *  the primary meanwhile. Every routing decision is counted in app.datasource.route by route and reason.
+ *  Must sit behind a LazyConnectionDataSourceProxy: JpaTransactionManager asks for the connection before
+ *  it marks the transaction read-only.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+	private final HikariDataSource primary;
+	private final List<HikariDataSource> replicas;
+	private final Balance balance;
+	private final RecentWrites recentWrites;
+	private final long retryDownAfterNanos;
+	private final MeterRegistry registry;
+
+	private final AtomicInteger next = new AtomicInteger();
+	// System.nanoTime() until which a replica is considered down, 0 when it is up
+	private final AtomicLongArray downUntil;
+	private final Map<String, Counter> routes = new ConcurrentHashMap<>();
+
+	public ReadWriteRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+			ReplicaProperties properties, RecentWrites recentWrites, MeterRegistry registry) {
+		this.primary = primary;
+		this.replicas = List.copyOf(replicas);
+		this.balance = properties.balance();
+		this.recentWrites = recentWrites;
+		this.retryDownAfterNanos = properties.retryDownAfter().toNanos();
+		this.registry = registry;
+		this.downUntil = new AtomicLongArray(replicas.size());
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		if (!isReadOnly()) {
+			return primary("write");
+		}
+		if (recentWrites.hasRecentWrite()) {
+			return primary("recent-write");
+		}
+		int replica = pick();
+		if (replica < 0) {
+			return primary("replica-down");
+		}
+		try {
+			Connection connection = replicas.get(replica).getConnection();
+			count(replicas.get(replica).getPoolName(), "read");
+			return connection;
+		} catch (SQLException ex) {
+			log.warn("Replica {} unavailable, reading from the primary: {}", replicas.get(replica).getPoolName(), ex.getMessage());
+			downUntil.set(replica, System.nanoTime() + retryDownAfterNanos);
+			return primary("replica-down");
+		}
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		throw new UnsupportedOperationException("Routed connections use the credentials of each pool");
+	}
+
+	private static boolean isReadOnly() {
+		return ReadOnlyContext.isReadOnly() || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+	}
+
+	private Connection primary(String reason) throws SQLException {
+		count(primary.getPoolName(), reason);
+		return primary.getConnection();
+	}
+
+	/** Index of the replica to use, -1 when all of them are down. */
+	private int pick() {
+		int size = replicas.size();
+		int start = balance == Balance.ROUND_ROBIN ? Math.floorMod(next.getAndIncrement(), size) : 0;
+		int chosen = -1;
+		int fewest = Integer.MAX_VALUE;
+		for (int i = 0; i < size; i++) {
+			int candidate = (start + i) % size;
+			if (!isUp(candidate)) {
+				continue;
+			}
+			if (balance == Balance.ROUND_ROBIN) {
+				return candidate;
+			}
+			int active = Objects.nonNull(replicas.get(candidate).getHikariPoolMXBean())
+					? replicas.get(candidate).getHikariPoolMXBean().getActiveConnections()
+					: 0;
+			if (active < fewest) {
+				fewest = active;
+				chosen = candidate;
+			}
+		}
+		return chosen;
+	}
+
+	private boolean isUp(int replica) {
+		long until = downUntil.get(replica);
+		return until == 0 || System.nanoTime() - until >= 0;
+	}
+
+	private void count(String route, String reason) {
+		routes.computeIfAbsent(route + '|' + reason, key -> Counter.builder("app.datasource.route")
+				.description("Connections handed out per route and routing reason")
+				.tags("route", route, "reason", reason)
+				.register(registry)).increment();
+	}
+}
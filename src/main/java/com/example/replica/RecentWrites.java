@@ -0,0 +1,60 @@
+package com.example.replica;
+
+import java.util.Objects;
+
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.example.listener.EntityChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+
+/** Sessions that committed a write within the last app.replicas.read-your-writes. Their reads stay on
+ *  the primary until the replicas can be assumed to have caught up. A session is the value of the
+ *  configured request header, or else the HTTP session; requests with neither are not tracked.
+ */
+public class RecentWrites {
+
+	private final String sessionHeader;
+	private final Cache<String, Boolean> sessions;
+
+	public RecentWrites(ReplicaProperties properties) {
+		this.sessionHeader = properties.sessionHeader();
+		this.sessions = Caffeine.newBuilder()
+				.expireAfterWrite(properties.readYourWrites())
+				.maximumSize(100_000)
+				.build();
+	}
+
+	public boolean hasRecentWrite() {
+		String session = currentSession();
+		return Objects.nonNull(session) && Objects.nonNull(sessions.getIfPresent(session));
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onEntityChanged(EntityChangedEvent event) {
+		String session = currentSession();
+		if (Objects.nonNull(session)) {
+			sessions.put(session, Boolean.TRUE);
+		}
+	}
+
+	private String currentSession() {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (!(attributes instanceof ServletRequestAttributes servlet)) {
+			return null;
+		}
+		HttpServletRequest request = servlet.getRequest();
+		String header = request.getHeader(sessionHeader);
+		if (Objects.nonNull(header) && !header.isBlank()) {
+			return header;
+		}
+		HttpSession httpSession = request.getSession(false);
+		return Objects.nonNull(httpSession) ? httpSession.getId() : null;
+	}
+}
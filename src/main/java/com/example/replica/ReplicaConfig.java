@@ -0,0 +1,62 @@
+package com.example.replica;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.example.config.HikariPools;
+import com.example.replica.ReplicaProperties.Replica;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/** Replaces the single spring.datasource with a primary pool (spring.datasource itself) and one pool per
+ *  replica behind a ReadWriteRoutingDataSource. All pools publish the hikaricp.* metrics under their
+ *  pool name ("primary", "replica-0", ...). Cannot be combined with app.sharding.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.replicas.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaConfig {
+
+	@Bean
+	public RecentWrites recentWrites(ReplicaProperties replicas) {
+		return new RecentWrites(replicas);
+	}
+
+	@Bean
+	public DataSource dataSource(ReplicaProperties replicas, DataSourceProperties defaults, Environment environment,
+			RecentWrites recentWrites, MeterRegistry registry) {
+		if (environment.getProperty("app.sharding.enabled", Boolean.class, false)) {
+			throw new IllegalStateException("app.replicas and app.sharding cannot be enabled together");
+		}
+		if (replicas.targets() == null || replicas.targets().isEmpty()) {
+			throw new IllegalStateException("app.replicas.enabled is set but app.replicas.targets is empty");
+		}
+		MicrometerMetricsTrackerFactory metrics = new MicrometerMetricsTrackerFactory(registry);
+		HikariDataSource primary = HikariPools.create("primary", defaults.determineUrl(), defaults.determineUsername(),
+				defaults.determinePassword(), defaults, environment);
+		primary.setMetricsTrackerFactory(metrics);
+		List<HikariDataSource> pools = new ArrayList<>();
+		for (int i = 0; i < replicas.targets().size(); i++) {
+			Replica replica = replicas.targets().get(i);
+			HikariDataSource pool = HikariPools.create("replica-" + i, replica.url(), replica.username(), replica.password(),
+					defaults, environment);
+			pool.setReadOnly(true);
+			pool.setMetricsTrackerFactory(metrics);
+			pools.add(pool);
+		}
+		return new LazyConnectionDataSourceProxy(
+				new ReadWriteRoutingDataSource(primary, pools, replicas, recentWrites, registry));
+	}
+}
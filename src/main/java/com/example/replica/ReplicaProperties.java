@@ -0,0 +1,21 @@
+package com.example.replica;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** app.replicas: read-only service calls go to these databases, everything else to spring.datasource.
+ *  @param readYourWrites how long a session keeps reading from the primary after a write it made, an
+ *  upper bound of the replication lag
+ *  @param sessionHeader request header naming the client session; without it the HTTP session is used
+ */
+@ConfigurationProperties(prefix = "app.replicas")
+public record ReplicaProperties(boolean enabled, Balance balance, Duration readYourWrites, String sessionHeader,
+		Duration retryDownAfter, List<Replica> targets) {
+
+	public enum Balance { ROUND_ROBIN, LEAST_LOADED }
+
+	public record Replica(String url, String username, String password) {
+	}
+}
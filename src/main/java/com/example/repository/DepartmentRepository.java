@@ -6,6 +6,6 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import com.example.entity.Department;
 
 public interface DepartmentRepository extends JpaRepository<Department, Long>,
-	JpaSpecificationExecutor<Department> {
+	JpaSpecificationExecutor<Department>, DepartmentRepositoryCustom {
 }
 
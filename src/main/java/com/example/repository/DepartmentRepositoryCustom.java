@@ -0,0 +1,28 @@
+package com.example.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.dto.DepartmentDto;
+import com.example.dto.FieldSet;
+import com.example.entity.Department;
+import com.example.specification.FetchPlan;
+
+/** Selects straight into DepartmentDto (with the createdBy join) in a single statement. Fields outside
+ *  'fields' are selected as null, and createdBy is only joined when its name is asked for.
+ */
+public interface DepartmentRepositoryCustom {
+
+	List<DepartmentDto> findAllDto(Specification<Department> spec, FieldSet fields);
+
+	/** Department entities with the associations the plan names loaded the way it says. */
+	List<Department> findAllWithPlan(Specification<Department> spec, FetchPlan<Department> plan, Sort sort);
+
+	/** A page of departments with the plan applied to its rows; the count query has no fetch joins. */
+	Page<Department> findAllWithPlan(Specification<Department> spec, FetchPlan<Department> plan, Pageable pageable);
+
+}
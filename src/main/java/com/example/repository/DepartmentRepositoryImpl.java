@@ -0,0 +1,74 @@
+package com.example.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.dto.DepartmentDto;
+import com.example.dto.FieldSet;
+import com.example.entity.Department;
+import com.example.entity.User;
+import com.example.specification.FetchPlan;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+public class DepartmentRepositoryImpl implements DepartmentRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager em;
+
+	@Override
+	public List<DepartmentDto> findAllDto(Specification<Department> spec, FieldSet fields) {
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<DepartmentDto> query = cb.createQuery(DepartmentDto.class);
+		Root<Department> root = query.from(Department.class);
+		// users is only joined when the createdBy name is asked for
+		Join<Department, User> createdBy = fields.contains("createdBy") ? root.join("createdBy", JoinType.LEFT) : null;
+
+		// Argument order follows the DepartmentDto record components
+		query.select(cb.construct(DepartmentDto.class,
+				field(cb, fields, "id", () -> root.get("id"), Long.class),
+				field(cb, fields, "departmentName", () -> root.get("departmentName"), String.class),
+				field(cb, fields, "location", () -> root.get("location"), String.class),
+				field(cb, fields, "manager", () -> root.get("manager"), String.class),
+				field(cb, fields, "budget", () -> root.get("budget"), BigDecimal.class),
+				field(cb, fields, "createdBy", () -> createdBy.get("username"), String.class),
+				field(cb, fields, "createdAt", () -> root.get("createdAt"), LocalDateTime.class)));
+
+		Predicate predicate = spec.toPredicate(root, query, cb);
+		if (predicate != null) {
+			query.where(predicate);
+		}
+		return em.createQuery(query).getResultList();
+	}
+
+	private static Selection<?> field(CriteriaBuilder cb, FieldSet fields, String name,
+			Supplier<Selection<?>> path, Class<?> type) {
+		return fields.contains(name) ? path.get() : cb.nullLiteral(type);
+	}
+
+	@Override
+	public List<Department> findAllWithPlan(Specification<Department> spec, FetchPlan<Department> plan, Sort sort) {
+		return plan.findAll(em, spec, sort);
+	}
+
+	@Override
+	public Page<Department> findAllWithPlan(Specification<Department> spec, FetchPlan<Department> plan, Pageable pageable) {
+		return plan.findAll(em, spec, pageable);
+	}
+
+}
@@ -0,0 +1,82 @@
+package com.example.repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import com.example.entity.Employee;
+
+/** Plain JDBC batch inserts for bulk loads. Hibernate will not batch inserts of IDENTITY entities, since
+ *  it needs each generated id before it can go on; here the whole chunk is sent as one batch (one
+ *  multi-row INSERT with MySQL's rewriteBatchedStatements) and the ids the database assigned are read
+ *  back from the generated keys afterwards.
+ */
+@Repository
+public class EmployeeBulkWriter {
+
+	private static final String INSERT = "insert into employees (first_name, last_name, email, hire_date,"
+			+ " department_id, salary, created_by, created_at) values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public EmployeeBulkWriter(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/** Inserts the employees in one JDBC batch and sets their generated ids. Must run in a transaction. */
+	public void insert(List<Employee> employees) {
+		KeyHolder keys = new GeneratedKeyHolder();
+		jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT, new String[] { "id" }),
+				new BatchPreparedStatementSetter() {
+					@Override
+					public void setValues(PreparedStatement ps, int i) throws SQLException {
+						Employee emp = employees.get(i);
+						ps.setString(1, emp.getFirstName());
+						ps.setString(2, emp.getLastName());
+						ps.setString(3, emp.getEmail());
+						ps.setDate(4, emp.getHireDate() == null ? null : Date.valueOf(emp.getHireDate()));
+						ps.setObject(5, emp.getDepartment() == null ? null : emp.getDepartment().getId());
+						ps.setBigDecimal(6, emp.getSalary());
+						ps.setObject(7, emp.getCreatedBy() == null ? null : emp.getCreatedBy().getId());
+						ps.setTimestamp(8, Timestamp.valueOf(emp.getCreatedAt()));
+					}
+
+					@Override
+					public int getBatchSize() {
+						return employees.size();
+					}
+				}, keys);
+
+		List<Map<String, Object>> generated = keys.getKeyList();
+		for (int i = 0; i < employees.size(); i++) {
+			// MySQL reports the key as GENERATED_KEY, other drivers under the column name
+			employees.get(i).setId(((Number) generated.get(i).values().iterator().next()).longValue());
+		}
+	}
+
+	public Map<Long, String> departmentNames() {
+		return namesById("select id, department_name from departments");
+	}
+
+	public Map<Long, String> usernames() {
+		return namesById("select id, username from users");
+	}
+
+	private Map<Long, String> namesById(String sql) {
+		Map<Long, String> names = new HashMap<>();
+		jdbcTemplate.query(sql, rs -> {
+			names.put(rs.getLong(1), rs.getString(2));
+		});
+		return names;
+	}
+}
@@ -0,0 +1,45 @@
+package com.example.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.dto.EmployeeDto;
+import com.example.dto.FieldSet;
+import com.example.dto.ProjectAssignment;
+import com.example.dto.SearchFilter;
+import com.example.entity.Employee;
+
+/** Read paths that select straight into EmployeeDto (with the department and createdBy joins) in a
+ *  single statement instead of materializing Employee entities and lazy loading their associations.
+ *  Implemented by EmployeeRepository, and by ShardedEmployeeQueries across department shards.
+ *  Fields outside 'fields' are selected as null, and the department and createdBy joins are only made
+ *  for the fields that need them.
+ */
+public interface EmployeeDtoQueries {
+
+	List<EmployeeDto> findAllDto(Specification<Employee> spec, FieldSet fields);
+
+	/** First 'limit' rows in the given order, without a count query. */
+	List<EmployeeDto> findAllDto(Specification<Employee> spec, Sort sort, int limit, FieldSet fields);
+
+	Page<EmployeeDto> findAllDto(Specification<Employee> spec, Pageable pageable, FieldSet fields);
+
+	/** Like findAllDto(spec, pageable) but without the count query: fetches one extra row to find out
+	 *  whether a next page exists.
+	 */
+	Slice<EmployeeDto> findDtoSlice(Specification<Employee> spec, Pageable pageable, FieldSet fields);
+
+	/** SearchFilter lists run as a parameterized query compiled once per filter shape
+	 *  (see FilterQueryCompiler) rather than as a freshly built criteria query.
+	 */
+	List<EmployeeDto> findAllDto(List<SearchFilter> filters, FieldSet fields);
+
+	/** The employee_projects rows of the given employees, in one IN query, each employee's rows ordered by project id. */
+	List<ProjectAssignment> findProjectAssignments(Collection<Long> employeeIds);
+}
@@ -5,6 +5,6 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
 public interface EmployeeRepository extends JpaRepository<Employee, Long>,
-	JpaSpecificationExecutor<Employee> {
+	JpaSpecificationExecutor<Employee>, EmployeeRepositoryCustom {
 }
 
@@ -0,0 +1,31 @@
+package com.example.repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.dto.SearchFilter;
+import com.example.entity.Employee;
+import com.example.specification.FetchPlan;
+
+public interface EmployeeRepositoryCustom extends EmployeeDtoQueries {
+
+	/** Employee entities with the associations the plan names loaded the way it says. */
+	List<Employee> findAllWithPlan(Specification<Employee> spec, FetchPlan<Employee> plan, Sort sort);
+
+	/** A page of employees with the plan applied to its rows; the count query has no fetch joins. */
+	Page<Employee> findAllWithPlan(Specification<Employee> spec, FetchPlan<Employee> plan, Pageable pageable);
+
+	/** Forward-only cursor over the employees matching the filters, with the plan's join fetches loaded
+	 *  in the same row (a cursor cannot batch or subselect). Must be consumed (and closed) inside a transaction; callers should detach each entity
+	 *  once it has been processed so the persistence context does not grow with the result.
+	 */
+	Stream<Employee> streamAll(List<SearchFilter> filters, FetchPlan<Employee> plan, int fetchSize);
+
+	void detach(Employee employee);
+
+}
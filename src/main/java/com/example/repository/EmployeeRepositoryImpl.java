@@ -0,0 +1,214 @@
+package com.example.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import com.example.dto.EmployeeDto;
+import com.example.dto.FieldSet;
+import com.example.dto.ProjectAssignment;
+import com.example.dto.SearchFilter;
+import com.example.entity.Department;
+import com.example.entity.Employee;
+import com.example.entity.User;
+import com.example.specification.CompiledFilter;
+import com.example.specification.FetchPlan;
+import com.example.specification.FilterQueryCompiler;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+public class EmployeeRepositoryImpl implements EmployeeRepositoryCustom {
+
+	// select new com.example.dto.EmployeeDto(e.id, e.firstName, ..., e.createdAt) from Employee e
+	// left join e.department d left join e.createdBy u
+	private static final String DTO_SELECT = dtoSelect(FieldSet.ALL);
+
+	@PersistenceContext
+	private EntityManager em;
+
+	private final FilterQueryCompiler filterCompiler;
+
+	public EmployeeRepositoryImpl(FilterQueryCompiler filterCompiler) {
+		this.filterCompiler = filterCompiler;
+	}
+
+	@Override
+	public List<EmployeeDto> findAllDto(Specification<Employee> spec, FieldSet fields) {
+		return dtoQuery(spec, Sort.unsorted(), fields).getResultList();
+	}
+
+	@Override
+	public List<EmployeeDto> findAllDto(Specification<Employee> spec, Sort sort, int limit, FieldSet fields) {
+		return dtoQuery(spec, sort, fields).setMaxResults(limit).getResultList();
+	}
+
+	@Override
+	public Page<EmployeeDto> findAllDto(Specification<Employee> spec, Pageable pageable, FieldSet fields) {
+		List<EmployeeDto> rows = dtoQuery(spec, pageable.getSort(), fields)
+				.setFirstResult((int) pageable.getOffset())
+				.setMaxResults(pageable.getPageSize())
+				.getResultList();
+		return new PageImpl<>(rows, pageable, countAll(spec));
+	}
+
+	@Override
+	public Slice<EmployeeDto> findDtoSlice(Specification<Employee> spec, Pageable pageable, FieldSet fields) {
+		List<EmployeeDto> rows = dtoQuery(spec, pageable.getSort(), fields)
+				.setFirstResult((int) pageable.getOffset())
+				.setMaxResults(pageable.getPageSize() + 1)
+				.getResultList();
+		boolean hasNext = rows.size() > pageable.getPageSize();
+		return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+	}
+
+	@Override
+	public List<EmployeeDto> findAllDto(List<SearchFilter> filters, FieldSet fields) {
+		CompiledFilter filter = filterCompiler.compile(Employee.class, "e", filters);
+		String select = fields.isAll() ? DTO_SELECT : dtoSelect(fields);
+		TypedQuery<EmployeeDto> query = em.createQuery(select + filter.where(), EmployeeDto.class);
+		filter.bind(query, filters);
+		return query.getResultList();
+	}
+
+	@Override
+	public List<ProjectAssignment> findProjectAssignments(Collection<Long> employeeIds) {
+		return em.createQuery("select new com.example.dto.ProjectAssignment(ep.employee.id, ep.project.id, ep.role, ep.status)"
+				+ " from EmployeeProject ep where ep.employee.id in :ids order by ep.employee.id, ep.project.id",
+				ProjectAssignment.class)
+				.setParameter("ids", employeeIds)
+				.getResultList();
+	}
+
+	@Override
+	public List<Employee> findAllWithPlan(Specification<Employee> spec, FetchPlan<Employee> plan, Sort sort) {
+		return plan.findAll(em, spec, sort);
+	}
+
+	@Override
+	public Page<Employee> findAllWithPlan(Specification<Employee> spec, FetchPlan<Employee> plan, Pageable pageable) {
+		return plan.findAll(em, spec, pageable);
+	}
+
+	@Override
+	public Stream<Employee> streamAll(List<SearchFilter> filters, FetchPlan<Employee> plan, int fetchSize) {
+		CompiledFilter filter = filterCompiler.compile(Employee.class, "e", filters);
+		TypedQuery<Employee> query = em.createQuery(
+				"select e from Employee e" + plan.joinFetchClause("e") + filter.where(), Employee.class);
+		filter.bind(query, filters);
+		return query
+				.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+				.setHint(HibernateHints.HINT_READ_ONLY, true)
+				.getResultStream();
+	}
+
+	@Override
+	public void detach(Employee employee) {
+		em.detach(employee);
+	}
+
+	/** JPQL select of the given fields; the others are selected as typed nulls. departmentId and
+	 *  createdById are the foreign keys on employees, so they need no join of their own.
+	 */
+	private static String dtoSelect(FieldSet fields) {
+		boolean department = fields.contains("departmentName");
+		boolean createdBy = fields.contains("createdBy");
+		// Argument order follows the EmployeeDto record components
+		return "select new com.example.dto.EmployeeDto("
+				+ String.join(", ",
+						field(fields, "id", "e.id", "Long"),
+						field(fields, "firstName", "e.firstName", "String"),
+						field(fields, "lastName", "e.lastName", "String"),
+						field(fields, "email", "e.email", "String"),
+						field(fields, "hireDate", "e.hireDate", "LocalDate"),
+						field(fields, "salary", "e.salary", "BigDecimal"),
+						field(fields, "departmentId", department ? "d.id" : "e.department.id", "Long"),
+						field(fields, "departmentName", "d.departmentName", "String"),
+						field(fields, "createdById", createdBy ? "u.id" : "e.createdBy.id", "Long"),
+						field(fields, "createdBy", "u.username", "String"),
+						field(fields, "createdAt", "e.createdAt", "LocalDateTime"))
+				+ ") from Employee e"
+				+ (department ? " left join e.department d" : "")
+				+ (createdBy ? " left join e.createdBy u" : "");
+	}
+
+	private static String field(FieldSet fields, String name, String path, String type) {
+		return fields.contains(name) ? path : "cast(null as " + type + ")";
+	}
+
+	private TypedQuery<EmployeeDto> dtoQuery(Specification<Employee> spec, Sort sort, FieldSet fields) {
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<EmployeeDto> query = cb.createQuery(EmployeeDto.class);
+		Root<Employee> root = query.from(Employee.class);
+		Join<Employee, Department> department = fields.contains("departmentName")
+				? root.join("department", JoinType.LEFT) : null;
+		Join<Employee, User> createdBy = fields.contains("createdBy")
+				? root.join("createdBy", JoinType.LEFT) : null;
+
+		// Argument order follows the EmployeeDto record components
+		query.select(cb.construct(EmployeeDto.class,
+				field(cb, fields, "id", () -> root.get("id"), Long.class),
+				field(cb, fields, "firstName", () -> root.get("firstName"), String.class),
+				field(cb, fields, "lastName", () -> root.get("lastName"), String.class),
+				field(cb, fields, "email", () -> root.get("email"), String.class),
+				field(cb, fields, "hireDate", () -> root.get("hireDate"), LocalDate.class),
+				field(cb, fields, "salary", () -> root.get("salary"), BigDecimal.class),
+				field(cb, fields, "departmentId", () -> Objects.nonNull(department)
+						? department.get("id") : root.get("department").get("id"), Long.class),
+				field(cb, fields, "departmentName", () -> department.get("departmentName"), String.class),
+				field(cb, fields, "createdById", () -> Objects.nonNull(createdBy)
+						? createdBy.get("id") : root.get("createdBy").get("id"), Long.class),
+				field(cb, fields, "createdBy", () -> createdBy.get("username"), String.class),
+				field(cb, fields, "createdAt", () -> root.get("createdAt"), LocalDateTime.class)));
+
+		Predicate predicate = spec.toPredicate(root, query, cb);
+		if (predicate != null) {
+			query.where(predicate);
+		}
+		if (sort.isSorted()) {
+			query.orderBy(QueryUtils.toOrders(sort, root, cb));
+		}
+		return em.createQuery(query);
+	}
+
+	private static Selection<?> field(CriteriaBuilder cb, FieldSet fields, String name,
+			Supplier<Selection<?>> path, Class<?> type) {
+		return fields.contains(name) ? path.get() : cb.nullLiteral(type);
+	}
+
+	private long countAll(Specification<Employee> spec) {
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<Long> query = cb.createQuery(Long.class);
+		Root<Employee> root = query.from(Employee.class);
+		query.select(cb.count(root));
+		Predicate predicate = spec.toPredicate(root, query, cb);
+		if (predicate != null) {
+			query.where(predicate);
+		}
+		return em.createQuery(query).getSingleResult();
+	}
+
+}
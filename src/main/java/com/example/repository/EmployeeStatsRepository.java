@@ -0,0 +1,114 @@
+package com.example.repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.example.dto.DepartmentStats;
+import com.example.dto.LocationHeadcount;
+import com.example.dto.MonthlyHires;
+import com.example.dto.SalaryStats;
+import com.example.dto.SearchFilter;
+import com.example.entity.Employee;
+import com.example.specification.CompiledFilter;
+import com.example.specification.FilterQueryCompiler;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+/** Aggregates over the employees matching a SearchFilter list, computed by the database as GROUP BY
+ *  projections (the where clause is compiled by FilterQueryCompiler, as for /employees/filter), so no
+ *  entity is loaded and only the aggregated rows come back.
+ *  Also reads and rebuilds the department_salary_rollup table, the precomputed per-department numbers
+ *  that DepartmentRollupListener keeps current.
+ */
+@Repository
+public class EmployeeStatsRepository {
+
+	private static final String FROM = " from Employee e left join e.department d";
+
+	private static final String REBUILD = "insert into department_salary_rollup"
+			+ " (department_id, headcount, salary_count, salary_sum, salary_min, salary_max)"
+			+ " select department_id, count(*), count(salary), sum(salary), min(salary), max(salary) from employees"
+			+ " where department_id is not null";
+
+	@PersistenceContext
+	private EntityManager em;
+
+	private final FilterQueryCompiler filterCompiler;
+	private final NamedParameterJdbcTemplate jdbc;
+
+	public EmployeeStatsRepository(FilterQueryCompiler filterCompiler, JdbcTemplate jdbcTemplate) {
+		this.filterCompiler = filterCompiler;
+		this.jdbc = new NamedParameterJdbcTemplate(jdbcTemplate);
+	}
+
+	public SalaryStats salaryStats(List<SearchFilter> filters) {
+		return query("select new com.example.dto.SalaryStats(count(e), sum(e.salary), avg(e.salary),"
+				+ " min(e.salary), max(e.salary))" + FROM, "", SalaryStats.class, filters).getSingleResult();
+	}
+
+	/** Matching employees that have a salary, the ones avg is taken over. */
+	public long salaryCount(List<SearchFilter> filters) {
+		return query("select count(e.salary)" + FROM, "", Long.class, filters).getSingleResult();
+	}
+
+	public List<LocationHeadcount> headcountByLocation(List<SearchFilter> filters) {
+		return query("select new com.example.dto.LocationHeadcount(d.location, count(e))" + FROM,
+				" group by d.location order by d.location", LocationHeadcount.class, filters).getResultList();
+	}
+
+	public List<MonthlyHires> hiresByMonth(List<SearchFilter> filters) {
+		return query("select new com.example.dto.MonthlyHires(year(e.hireDate), month(e.hireDate), count(e))" + FROM,
+				" group by year(e.hireDate), month(e.hireDate) order by year(e.hireDate), month(e.hireDate)",
+				MonthlyHires.class, filters).getResultList();
+	}
+
+	public List<DepartmentStats> departmentStats(List<SearchFilter> filters) {
+		return query("select new com.example.dto.DepartmentStats(d.id, d.departmentName, d.location, count(e),"
+				+ " sum(e.salary), avg(e.salary), min(e.salary), max(e.salary)) from Employee e join e.department d",
+				" group by d.id, d.departmentName, d.location order by d.id", DepartmentStats.class, filters)
+				.getResultList();
+	}
+
+	/** The per-department numbers from department_salary_rollup, same shape as departmentStats([]): the
+	 *  average is over the employees that have a salary, as avg() takes it, and null when none has one.
+	 */
+	public List<DepartmentStats> departmentStatsFromRollup() {
+		return jdbc.query("select r.department_id, d.department_name, d.location, r.headcount, r.salary_count,"
+				+ " r.salary_sum, r.salary_min, r.salary_max from department_salary_rollup r"
+				+ " join departments d on d.id = r.department_id order by r.department_id",
+				(rs, rowNum) -> {
+					long salaryCount = rs.getLong(5);
+					BigDecimal salarySum = rs.getBigDecimal(6);
+					return new DepartmentStats(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getLong(4),
+							salarySum, salaryCount == 0 ? null : salarySum.doubleValue() / salaryCount,
+							rs.getBigDecimal(7), rs.getBigDecimal(8));
+				});
+	}
+
+	/** Recomputes the rollup rows of the given departments; a department left without employees loses its row. */
+	public void rebuildRollup(Collection<Long> departmentIds) {
+		MapSqlParameterSource ids = new MapSqlParameterSource("ids", departmentIds);
+		jdbc.update("delete from department_salary_rollup where department_id in (:ids)", ids);
+		jdbc.update(REBUILD + " and department_id in (:ids) group by department_id", ids);
+	}
+
+	public void rebuildRollup() {
+		jdbc.getJdbcTemplate().update("delete from department_salary_rollup");
+		jdbc.getJdbcTemplate().update(REBUILD + " group by department_id");
+	}
+
+	private <T> TypedQuery<T> query(String select, String groupBy, Class<T> type, List<SearchFilter> filters) {
+		CompiledFilter filter = filterCompiler.compile(Employee.class, "e", filters);
+		TypedQuery<T> query = em.createQuery(select + filter.where() + groupBy, type);
+		filter.bind(query, filters);
+		return query;
+	}
+}
@@ -0,0 +1,10 @@
+package com.example.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import com.example.entity.Project;
+
+public interface ProjectRepository extends JpaRepository<Project, Long>,
+	JpaSpecificationExecutor<Project>, ProjectRepositoryCustom {
+}
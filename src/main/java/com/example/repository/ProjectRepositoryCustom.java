@@ -0,0 +1,21 @@
+package com.example.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.entity.Project;
+import com.example.specification.FetchPlan;
+
+public interface ProjectRepositoryCustom {
+
+	/** Project entities with the associations the plan names loaded the way it says. */
+	List<Project> findAllWithPlan(Specification<Project> spec, FetchPlan<Project> plan, Sort sort);
+
+	/** A page of projects with the plan applied to its rows; the count query has no fetch joins. */
+	Page<Project> findAllWithPlan(Specification<Project> spec, FetchPlan<Project> plan, Pageable pageable);
+
+}
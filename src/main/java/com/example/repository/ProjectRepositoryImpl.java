@@ -0,0 +1,31 @@
+package com.example.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.entity.Project;
+import com.example.specification.FetchPlan;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+public class ProjectRepositoryImpl implements ProjectRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager em;
+
+	@Override
+	public List<Project> findAllWithPlan(Specification<Project> spec, FetchPlan<Project> plan, Sort sort) {
+		return plan.findAll(em, spec, sort);
+	}
+
+	@Override
+	public Page<Project> findAllWithPlan(Specification<Project> spec, FetchPlan<Project> plan, Pageable pageable) {
+		return plan.findAll(em, spec, pageable);
+	}
+
+}
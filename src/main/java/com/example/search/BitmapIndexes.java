@@ -0,0 +1,253 @@
+package com.example.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.entity.Department;
+import com.example.entity.EmployeeProject;
+import com.example.entity.Project;
+import com.example.entity.User;
+import com.example.listener.EntityChangedEvent;
+import com.example.listener.EntityChangedEvent.ChangeType;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+
+/** In-memory bitmap indexes over the low-cardinality columns that filters test for equality:
+ *  Department.location, User.status and Project.category keyed by entity id, EmployeeProject.role and
+ *  EmployeeProject.status keyed by (employee id, project id) packed into one long.
+ *  equal, in and notEqual filters on them are resolved here to the ids they match, which the query then
+ *  tests instead of the column (see FilterQueryCompiler).
+ *  Built when the application starts and kept current from committed entity changes; the size of each
+ *  index is published as app.bitmap.index.bytes and app.bitmap.index.values.
+ */
+@Slf4j
+@Component
+public class BitmapIndexes {
+
+	public static final Set<String> OPERATIONS = Set.of("equal", "in", "notEqual");
+
+	// Employee and project ids share a key as its high and low 32 bits
+	private static final long MAX_PACKED_ID = 0xFFFF_FFFFL;
+
+	private final boolean enabled;
+	private final int maxIds;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final ValueBitmaps departmentLocation = new ValueBitmaps();
+	private final ValueBitmaps userStatus = new ValueBitmaps();
+	private final ValueBitmaps projectCategory = new ValueBitmaps();
+	private final ValueBitmaps assignmentRole = new ValueBitmaps();
+	private final ValueBitmaps assignmentStatus = new ValueBitmaps();
+	private final Map<Class<?>, Map<String, ValueBitmaps>> byEntity = Map.of(
+			Department.class, Map.of("location", departmentLocation),
+			User.class, Map.of("status", userStatus),
+			Project.class, Map.of("category", projectCategory));
+	private final Map<String, ValueBitmaps> byAssignment = Map.of(
+			"role", assignmentRole,
+			"status", assignmentStatus);
+
+	// Changes committed while the initial build is running, replayed once it is done
+	private List<EntityChangedEvent> pendingChanges = new ArrayList<>();
+	private volatile boolean ready;
+	// Cleared for good when an assignment has an id the packed key cannot hold
+	private volatile boolean assignmentsIndexed = true;
+
+	@PersistenceContext
+	private EntityManager em;
+
+	public BitmapIndexes(MeterRegistry registry,
+			@Value("${app.bitmap-index.enabled:false}") boolean enabled,
+			@Value("${app.bitmap-index.max-ids:10000}") int maxIds) {
+		this.enabled = enabled;
+		this.maxIds = maxIds;
+		if (!enabled) return;
+		Map.of("Department.location", departmentLocation, "User.status", userStatus,
+				"Project.category", projectCategory, "EmployeeProject.role", assignmentRole,
+				"EmployeeProject.status", assignmentStatus).forEach((name, index) -> {
+			gauge(registry, "app.bitmap.index.bytes", "Memory held by the bitmaps of the index", name, index,
+					ValueBitmaps::sizeInBytes);
+			gauge(registry, "app.bitmap.index.values", "Distinct values in the index", name, index,
+					ValueBitmaps::values);
+		});
+	}
+
+	/** Whether the filter "entityType.attribute operation value" is resolved to ids of entityType. Only when
+	 *  it matches no more than max-ids rows, since every id it matches is sent with the query.
+	 */
+	public boolean answers(Class<?> entityType, String attribute, String operation, String value) {
+		if (!ready || !OPERATIONS.contains(operation) || Objects.isNull(value)) return false;
+		ValueBitmaps index = byEntity.getOrDefault(entityType, Map.of()).get(attribute);
+		return Objects.nonNull(index) && read(() -> index.matchingCount(operation, values(operation, value))) <= maxIds;
+	}
+
+	/** Ids of the entityType rows matching the filter; answers() must have said yes for it. */
+	public List<Long> ids(Class<?> entityType, String attribute, String operation, String value) {
+		ValueBitmaps index = byEntity.get(entityType).get(attribute);
+		return read(() -> toList(index.matching(operation, values(operation, value))));
+	}
+
+	/** Whether the filter on EmployeeProject.role or status is resolved to ids of employees. Only when it
+	 *  matches no more than max-ids assignments, which bounds the number of employees sent with the query.
+	 */
+	public boolean answersAssignment(String attribute, String operation, String value) {
+		if (!ready || !assignmentsIndexed || !OPERATIONS.contains(operation) || Objects.isNull(value)) return false;
+		ValueBitmaps index = byAssignment.get(attribute);
+		return Objects.nonNull(index) && read(() -> index.matchingCount(operation, values(operation, value))) <= maxIds;
+	}
+
+	/** Ids of the employees with at least one project assignment whose role or status matches the filter,
+	 *  the way an inner join of the assignments filters them; answersAssignment() must have said yes for it.
+	 */
+	public List<Long> employeesWithAssignment(String attribute, String operation, String value) {
+		ValueBitmaps index = byAssignment.get(attribute);
+		return read(() -> {
+			Roaring64Bitmap employees = new Roaring64Bitmap();
+			index.matching(operation, values(operation, value)).forEach(key -> employees.addLong(key >>> 32));
+			return toList(employees);
+		});
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	public void build() {
+		if (!enabled) return;
+		long start = System.currentTimeMillis();
+		load("select d.id, d.location from Department d", departmentLocation);
+		load("select u.id, u.status from User u", userStatus);
+		load("select p.id, p.category from Project p", projectCategory);
+		try (Stream<Object[]> rows = em.createQuery(
+				"select ep.employee.id, ep.project.id, ep.role, ep.status from EmployeeProject ep", Object[].class)
+				.getResultStream()) {
+			rows.forEach(row -> withWriteLock(() -> putAssignment((Long) row[0], (Long) row[1], (String) row[2],
+					(String) row[3])));
+		}
+		withWriteLock(() -> {
+			pendingChanges.forEach(this::apply);
+			pendingChanges = null;
+			ready = true;
+		});
+		log.info("Bitmap indexes built in {} ms: {} department, {} user, {} project and {} assignment keys",
+				System.currentTimeMillis() - start, departmentLocation.keys(), userStatus.keys(),
+				projectCategory.keys(), assignmentRole.keys());
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onEntityChanged(EntityChangedEvent event) {
+		if (!enabled || !(event.isFor(Department.class) || event.isFor(User.class) || event.isFor(Project.class)
+				|| event.isFor(EmployeeProject.class))) return;
+		withWriteLock(() -> {
+			if (ready) {
+				apply(event);
+			} else {
+				pendingChanges.add(event);
+			}
+		});
+	}
+
+	private void apply(EntityChangedEvent event) {
+		boolean delete = event.type() == ChangeType.DELETE;
+		if (event.entity() instanceof Department dept) {
+			if (delete) departmentLocation.remove(dept.getId()); else departmentLocation.put(dept.getId(), dept.getLocation());
+		} else if (event.entity() instanceof User user) {
+			if (delete) userStatus.remove(user.getId()); else userStatus.put(user.getId(), user.getStatus());
+		} else if (event.entity() instanceof Project project) {
+			if (delete) projectCategory.remove(project.getId()); else projectCategory.put(project.getId(), project.getCategory());
+		} else if (event.entity() instanceof EmployeeProject assignment) {
+			Long employeeId = assignment.getEmployee().getId();
+			Long projectId = assignment.getProject().getId();
+			if (delete) {
+				if (fitsKey(employeeId, projectId)) {
+					assignmentRole.remove(key(employeeId, projectId));
+					assignmentStatus.remove(key(employeeId, projectId));
+				}
+			} else {
+				putAssignment(employeeId, projectId, assignment.getRole(), assignment.getStatus());
+			}
+		}
+	}
+
+	private void putAssignment(Long employeeId, Long projectId, String role, String status) {
+		if (!fitsKey(employeeId, projectId)) {
+			if (assignmentsIndexed) {
+				log.warn("Employee {} / project {} do not fit a bitmap key, role and status filters run in SQL",
+						employeeId, projectId);
+				assignmentsIndexed = false;
+			}
+			return;
+		}
+		assignmentRole.put(key(employeeId, projectId), role);
+		assignmentStatus.put(key(employeeId, projectId), status);
+	}
+
+	private static boolean fitsKey(Long employeeId, Long projectId) {
+		return employeeId >= 0 && employeeId <= MAX_PACKED_ID && projectId >= 0 && projectId <= MAX_PACKED_ID;
+	}
+
+	private static long key(long employeeId, long projectId) {
+		return employeeId << 32 | projectId;
+	}
+
+	private void load(String query, ValueBitmaps index) {
+		try (Stream<Object[]> rows = em.createQuery(query, Object[].class).getResultStream()) {
+			rows.forEach(row -> withWriteLock(() -> index.put((Long) row[0], (String) row[1])));
+		}
+	}
+
+	/** Values of an equal/notEqual filter, or the comma-separated ones of an in filter. */
+	private static List<String> values(String operation, String value) {
+		return "in".equals(operation) ? Arrays.asList(value.split(",")) : List.of(value);
+	}
+
+	private static List<Long> toList(Roaring64Bitmap bitmap) {
+		List<Long> ids = new ArrayList<>((int) bitmap.getLongCardinality());
+		bitmap.forEach(ids::add);
+		return ids;
+	}
+
+	private void gauge(MeterRegistry registry, String name, String description, String index, ValueBitmaps bitmaps,
+			ToDoubleFunction<ValueBitmaps> value) {
+		Gauge.builder(name, bitmaps, b -> read(() -> value.applyAsDouble(b)))
+				.tag("index", index)
+				.description(description)
+				.register(registry);
+	}
+
+	private <T> T read(Supplier<T> action) {
+		lock.readLock().lock();
+		try {
+			return action.get();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void withWriteLock(Runnable action) {
+		lock.writeLock().lock();
+		try {
+			action.run();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+}
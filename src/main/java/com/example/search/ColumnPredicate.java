@@ -0,0 +1,331 @@
+package com.example.search;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.RecursiveAction;
+
+import com.example.search.EmployeeColumns.StringDictionary;
+
+/** One SearchFilter over one column of the employee snapshot, applied to a range of rows by clearing
+ *  the bits of the rows it rejects from a bitmap (bit r of word r / 64 for row r). NULL never matches,
+ *  as in SQL. The factories return null for what they cannot evaluate exactly like the database would.
+ */
+abstract class ColumnPredicate {
+
+	/** Clears from words the bits of the rows in [from, to) that do not match; from is a multiple of 64. */
+	abstract void retain(long[] words, int from, int to);
+
+	/** A comparison on a numeric column, with the filter values already in the column's unit (cents,
+	 *  days, microseconds), possibly with a fraction where the filter is more precise than the column.
+	 */
+	static ColumnPredicate longs(long[] column, String operation, List<BigDecimal> values) {
+		return switch (operation) {
+			case "in" -> new LongIn(column, exact(values));
+			case "notEqual" -> isExact(values.get(0))
+					? new LongNotEqual(column, values.get(0).longValueExact())
+					: new LongRange(column, EmployeeColumns.NULL_LONG + 1, Long.MAX_VALUE);
+			default -> {
+				long[] range = range(operation, values.get(0));
+				yield Objects.nonNull(range) ? new LongRange(column, range[0], range[1]) : null;
+			}
+		};
+	}
+
+	static ColumnPredicate ints(int[] column, String operation, List<BigDecimal> values) {
+		return switch (operation) {
+			case "in" -> new IntIn(column, Arrays.stream(exact(values))
+					.filter(value -> value > EmployeeColumns.NULL_INT && value <= Integer.MAX_VALUE)
+					.mapToInt(Math::toIntExact).toArray());
+			case "notEqual" -> {
+				long[] range = range("equal", values.get(0));
+				yield new IntNotEqual(column, range[0] == range[1] ? range[0] : EmployeeColumns.NULL_LONG);
+			}
+			default -> {
+				long[] range = range(operation, values.get(0));
+				yield Objects.nonNull(range) ? new IntRange(column, range[0], range[1]) : null;
+			}
+		};
+	}
+
+	/** A match on a dictionary-encoded string column. Comparisons are case-insensitive, as under MySQL's
+	 *  default _ci collations; like values with their own wildcards are left to the database.
+	 */
+	static ColumnPredicate strings(int[] column, StringDictionary dictionary, String operation, String value) {
+		String lower = value.toLowerCase(Locale.ROOT);
+		return switch (operation) {
+			case "equal" -> new CodeIn(column, dictionary.matching(candidate -> candidate.toLowerCase(Locale.ROOT).equals(lower)));
+			case "notEqual" -> new CodeIn(column, dictionary.matching(candidate -> !candidate.toLowerCase(Locale.ROOT).equals(lower)));
+			case "in" -> {
+				List<String> values = Arrays.stream(value.split(",")).map(item -> item.toLowerCase(Locale.ROOT)).toList();
+				yield new CodeIn(column, dictionary.matching(candidate -> values.contains(candidate.toLowerCase(Locale.ROOT))));
+			}
+			case "like" -> value.contains("%") || value.contains("_") ? null
+					: new CodeIn(column, dictionary.matching(candidate -> candidate.toLowerCase(Locale.ROOT).contains(lower)));
+			case "startsWith" -> new CodeIn(column,
+					dictionary.matching(candidate -> candidate.regionMatches(true, 0, value, 0, value.length())));
+			default -> null;
+		};
+	}
+
+	/** Inclusive [low, high] of the column values for which "value operation bound" holds, excluding
+	 *  NULL_LONG; null for operations that are not a single range.
+	 */
+	private static long[] range(String operation, BigDecimal bound) {
+		BigDecimal ceiling = bound.setScale(0, RoundingMode.CEILING);
+		BigDecimal floor = bound.setScale(0, RoundingMode.FLOOR);
+		boolean exact = ceiling.compareTo(floor) == 0;
+		BigDecimal low = BigDecimal.valueOf(EmployeeColumns.NULL_LONG + 1);
+		BigDecimal high = BigDecimal.valueOf(Long.MAX_VALUE);
+		switch (operation) {
+			case "equal" -> {
+				if (!exact) return new long[] { 1, 0 };
+				low = ceiling.max(low);
+				high = floor.min(high);
+			}
+			case "greaterThan" -> low = (exact ? floor.add(BigDecimal.ONE) : ceiling).max(low);
+			case "greaterThanEqual" -> low = ceiling.max(low);
+			case "lessThan" -> high = (exact ? ceiling.subtract(BigDecimal.ONE) : floor).min(high);
+			case "lessThanEqual" -> high = floor.min(high);
+			default -> {
+				return null;
+			}
+		}
+		// Bounds beyond the long range clamp to an empty range
+		if (low.compareTo(high) > 0) return new long[] { 1, 0 };
+		return new long[] { low.longValueExact(), high.longValueExact() };
+	}
+
+	private static boolean isExact(BigDecimal value) {
+		return value.stripTrailingZeros().scale() <= 0 && value.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) <= 0
+				&& value.compareTo(BigDecimal.valueOf(EmployeeColumns.NULL_LONG)) > 0;
+	}
+
+	/** The whole values among values, sorted for binary search; the others match no row. */
+	private static long[] exact(List<BigDecimal> values) {
+		return values.stream().filter(ColumnPredicate::isExact).mapToLong(BigDecimal::longValueExact)
+				.sorted().distinct().toArray();
+	}
+
+	private static final class LongRange extends ColumnPredicate {
+
+		private final long[] column;
+		private final long low;
+		private final long high;
+
+		LongRange(long[] column, long low, long high) {
+			this.column = column;
+			this.low = low;
+			this.high = high;
+		}
+
+		@Override
+		void retain(long[] words, int from, int to) {
+			for (int start = from; start < to; start += 64) {
+				long bits = words[start >>> 6];
+				if (bits == 0) continue;
+				long keep = 0;
+				int end = Math.min(start + 64, to);
+				for (int row = start; row < end; row++) {
+					long value = column[row];
+					if (value >= low & value <= high) keep |= 1L << row;
+				}
+				words[start >>> 6] = bits & keep;
+			}
+		}
+	}
+
+	private static final class LongNotEqual extends ColumnPredicate {
+
+		private final long[] column;
+		private final long excluded;
+
+		LongNotEqual(long[] column, long excluded) {
+			this.column = column;
+			this.excluded = excluded;
+		}
+
+		@Override
+		void retain(long[] words, int from, int to) {
+			for (int start = from; start < to; start += 64) {
+				long bits = words[start >>> 6];
+				if (bits == 0) continue;
+				long keep = 0;
+				int end = Math.min(start + 64, to);
+				for (int row = start; row < end; row++) {
+					long value = column[row];
+					if (value != excluded & value != EmployeeColumns.NULL_LONG) keep |= 1L << row;
+				}
+				words[start >>> 6] = bits & keep;
+			}
+		}
+	}
+
+	private static final class LongIn extends ColumnPredicate {
+
+		private final long[] column;
+		private final long[] sorted;
+
+		LongIn(long[] column, long[] sorted) {
+			this.column = column;
+			this.sorted = sorted;
+		}
+
+		@Override
+		void retain(long[] words, int from, int to) {
+			for (int start = from; start < to; start += 64) {
+				long bits = words[start >>> 6];
+				if (bits == 0) continue;
+				long keep = 0;
+				int end = Math.min(start + 64, to);
+				for (int row = start; row < end; row++) {
+					if (Arrays.binarySearch(sorted, column[row]) >= 0) keep |= 1L << row;
+				}
+				words[start >>> 6] = bits & keep;
+			}
+		}
+	}
+
+	private static final class IntRange extends ColumnPredicate {
+
+		private final int[] column;
+		private final long low;
+		private final long high;
+
+		IntRange(int[] column, long low, long high) {
+			this.column = column;
+			// NULL_INT is below any low bound a range can have on a long column, exclude it here
+			this.low = Math.max(low, EmployeeColumns.NULL_INT + 1L);
+			this.high = high;
+		}
+
+		@Override
+		void retain(long[] words, int from, int to) {
+			for (int start = from; start < to; start += 64) {
+				long bits = words[start >>> 6];
+				if (bits == 0) continue;
+				long keep = 0;
+				int end = Math.min(start + 64, to);
+				for (int row = start; row < end; row++) {
+					int value = column[row];
+					if (value >= low & value <= high) keep |= 1L << row;
+				}
+				words[start >>> 6] = bits & keep;
+			}
+		}
+	}
+
+	private static final class IntNotEqual extends ColumnPredicate {
+
+		private final int[] column;
+		private final long excluded;
+
+		IntNotEqual(int[] column, long excluded) {
+			this.column = column;
+			this.excluded = excluded;
+		}
+
+		@Override
+		void retain(long[] words, int from, int to) {
+			for (int start = from; start < to; start += 64) {
+				long bits = words[start >>> 6];
+				if (bits == 0) continue;
+				long keep = 0;
+				int end = Math.min(start + 64, to);
+				for (int row = start; row < end; row++) {
+					int value = column[row];
+					if (value != excluded & value != EmployeeColumns.NULL_INT) keep |= 1L << row;
+				}
+				words[start >>> 6] = bits & keep;
+			}
+		}
+	}
+
+	private static final class IntIn extends ColumnPredicate {
+
+		private final int[] column;
+		private final int[] sorted;
+
+		IntIn(int[] column, int[] sorted) {
+			this.column = column;
+			this.sorted = sorted;
+		}
+
+		@Override
+		void retain(long[] words, int from, int to) {
+			for (int start = from; start < to; start += 64) {
+				long bits = words[start >>> 6];
+				if (bits == 0) continue;
+				long keep = 0;
+				int end = Math.min(start + 64, to);
+				for (int row = start; row < end; row++) {
+					if (Arrays.binarySearch(sorted, column[row]) >= 0) keep |= 1L << row;
+				}
+				words[start >>> 6] = bits & keep;
+			}
+		}
+	}
+
+	/** Rows whose dictionary code is one of the matching ones. */
+	private static final class CodeIn extends ColumnPredicate {
+
+		private final int[] column;
+		private final boolean[] matching;
+
+		CodeIn(int[] column, boolean[] matching) {
+			this.column = column;
+			this.matching = matching;
+		}
+
+		@Override
+		void retain(long[] words, int from, int to) {
+			for (int start = from; start < to; start += 64) {
+				long bits = words[start >>> 6];
+				if (bits == 0) continue;
+				long keep = 0;
+				int end = Math.min(start + 64, to);
+				for (int row = start; row < end; row++) {
+					int code = column[row];
+					if (code != EmployeeColumns.NULL_CODE && matching[code]) keep |= 1L << row;
+				}
+				words[start >>> 6] = bits & keep;
+			}
+		}
+	}
+
+	/** Applies all predicates to a range of rows, split into chunks of whole bitmap words that the
+	 *  fork/join pool evaluates in parallel. Each chunk writes only its own words.
+	 */
+	static final class Scan extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		private static final int CHUNK_ROWS = 16 * 1024;
+
+		private final ColumnPredicate[] predicates;
+		private final long[] words;
+		private final int from;
+		private final int to;
+
+		Scan(ColumnPredicate[] predicates, long[] words, int from, int to) {
+			this.predicates = predicates;
+			this.words = words;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= CHUNK_ROWS) {
+				for (ColumnPredicate predicate : predicates) {
+					predicate.retain(words, from, to);
+				}
+				return;
+			}
+			int middle = ((from + to) >>> 1) & ~63;
+			invokeAll(new Scan(predicates, words, from, middle), new Scan(predicates, words, middle, to));
+		}
+	}
+}
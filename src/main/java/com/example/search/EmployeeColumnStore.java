@@ -0,0 +1,206 @@
+package com.example.search;
+
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.dto.SearchFilter;
+import com.example.entity.Employee;
+import com.example.listener.EntityChangedEvent;
+import com.example.listener.EntityChangedEvent.ChangeType;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+
+/** In-memory columnar replica of the employees table (see EmployeeColumns), used to evaluate SearchFilter
+ *  lists with a parallel scan instead of a table scan, so that only the matching rows are read from
+ *  the database. It is built when the application starts and kept current from committed entity changes.
+ *  match() returns empty whenever the snapshot cannot answer (disabled, still building, a column or
+ *  operation it does not hold, too many matches), in which case callers run the filters as SQL.
+ */
+@Slf4j
+@Component
+public class EmployeeColumnStore {
+
+	private final boolean enabled;
+	private final int maxMatches;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private EmployeeColumns columns = new EmployeeColumns();
+
+	// Changes committed while a build is running, replayed onto the new snapshot once it is done
+	private List<EntityChangedEvent> pendingChanges;
+	private volatile boolean ready;
+
+	@PersistenceContext
+	private EntityManager em;
+
+	public EmployeeColumnStore(@Value("${app.columnar.enabled:false}") boolean enabled,
+			@Value("${app.columnar.max-matches:10000}") int maxMatches) {
+		this.enabled = enabled;
+		this.maxMatches = maxMatches;
+	}
+
+	/** Ids of the employees matching all filters, in ascending order. */
+	public Optional<List<Long>> match(List<SearchFilter> filters) {
+		if (!ready || Objects.isNull(filters)) {
+			return Optional.empty();
+		}
+		lock.readLock().lock();
+		try {
+			ColumnPredicate[] predicates = new ColumnPredicate[filters.size()];
+			for (int i = 0; i < predicates.length; i++) {
+				predicates[i] = predicate(filters.get(i));
+				if (Objects.isNull(predicates[i])) {
+					return Optional.empty();
+				}
+			}
+			int size = columns.size;
+			long[] words = Arrays.copyOf(columns.live, (size + 63) >>> 6);
+			ForkJoinPool.commonPool().invoke(new ColumnPredicate.Scan(predicates, words, 0, size));
+
+			long matches = 0;
+			for (long word : words) {
+				matches += Long.bitCount(word);
+			}
+			if (matches > maxMatches) {
+				return Optional.empty();
+			}
+			List<Long> ids = new ArrayList<>((int) matches);
+			for (int w = 0; w < words.length; w++) {
+				for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+					ids.add(columns.ids[(w << 6) + Long.numberOfTrailingZeros(bits)]);
+				}
+			}
+			return Optional.of(ids);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/** The filter as a predicate over the snapshot, or null if it has to run in the database: a column
+	 *  the snapshot does not hold, an operation it cannot evaluate the way SQL would, or a value that
+	 *  does not parse (the database path reports that error).
+	 */
+	private ColumnPredicate predicate(SearchFilter filter) {
+		if (Objects.isNull(filter.columnName()) || Objects.isNull(filter.operation()) || Objects.isNull(filter.value())) {
+			return null;
+		}
+		try {
+			return switch (filter.columnName()) {
+				case "id" -> ColumnPredicate.longs(columns.ids, filter.operation(),
+						values(filter, value -> new BigDecimal(Long.parseLong(value))));
+				case "department.id" -> ColumnPredicate.longs(columns.departmentIds, filter.operation(),
+						values(filter, value -> new BigDecimal(Long.parseLong(value))));
+				case "createdBy.id" -> ColumnPredicate.longs(columns.createdByIds, filter.operation(),
+						values(filter, value -> new BigDecimal(Long.parseLong(value))));
+				case "salary" -> ColumnPredicate.longs(columns.salaryCents, filter.operation(),
+						values(filter, value -> new BigDecimal(value).movePointRight(2)));
+				case "hireDate" -> ColumnPredicate.ints(columns.hireDays, filter.operation(),
+						values(filter, value -> BigDecimal.valueOf(LocalDate.parse(value).toEpochDay())));
+				case "createdAt" -> ColumnPredicate.longs(columns.createdAtMicros, filter.operation(),
+						values(filter, value -> {
+							LocalDateTime dateTime = LocalDateTime.parse(value);
+							// Whole microseconds plus the nanoseconds below them as a fraction
+							return BigDecimal.valueOf(EmployeeColumns.micros(dateTime))
+									.add(BigDecimal.valueOf(dateTime.getNano() % 1_000, 3));
+						}));
+				case "firstName" -> ColumnPredicate.strings(columns.firstNames, columns.firstNameDictionary,
+						filter.operation(), filter.value());
+				case "lastName" -> ColumnPredicate.strings(columns.lastNames, columns.lastNameDictionary,
+						filter.operation(), filter.value());
+				case "email" -> ColumnPredicate.strings(columns.emails, columns.emailDictionary,
+						filter.operation(), filter.value());
+				default -> null;
+			};
+		} catch (IllegalArgumentException | DateTimeException e) {
+			return null;
+		}
+	}
+
+	private static List<BigDecimal> values(SearchFilter filter, Function<String, BigDecimal> convert) {
+		if ("like".equals(filter.operation()) || "startsWith".equals(filter.operation())) {
+			// Text matches on a number or date depend on the database's formatting
+			throw new IllegalArgumentException("Not a numeric operation: " + filter.operation());
+		}
+		String[] values = "in".equals(filter.operation()) ? filter.value().split(",") : new String[] { filter.value() };
+		return Arrays.stream(values).map(convert).toList();
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	public void build() {
+		if (!enabled) return;
+		long start = System.currentTimeMillis();
+		withWriteLock(() -> pendingChanges = new ArrayList<>());
+		EmployeeColumns snapshot = new EmployeeColumns();
+		try (Stream<Object[]> rows = em.createQuery(
+				"select e.id, e.department.id, e.createdBy.id, e.salary, e.hireDate, e.createdAt,"
+				+ " e.firstName, e.lastName, e.email from Employee e order by e.id", Object[].class)
+				.getResultStream()) {
+			rows.forEach(row -> snapshot.put((Long) row[0], (Long) row[1], (Long) row[2], (BigDecimal) row[3],
+					(LocalDate) row[4], (LocalDateTime) row[5], (String) row[6], (String) row[7], (String) row[8]));
+		}
+		withWriteLock(() -> {
+			pendingChanges.forEach(event -> apply(snapshot, event));
+			pendingChanges = null;
+			columns = snapshot;
+			ready = true;
+		});
+		log.info("Columnar snapshot built over {} employees in {} ms", snapshot.liveRows(),
+				System.currentTimeMillis() - start);
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onEntityChanged(EntityChangedEvent event) {
+		if (!enabled || !event.isFor(Employee.class)) return;
+		withWriteLock(() -> {
+			// During a rebuild the current snapshot keeps answering, so both see the change
+			if (Objects.nonNull(pendingChanges)) {
+				pendingChanges.add(event);
+			}
+			apply(columns, event);
+		});
+	}
+
+	private static void apply(EmployeeColumns columns, EntityChangedEvent event) {
+		Employee emp = (Employee) event.entity();
+		if (event.type() == ChangeType.DELETE) {
+			columns.remove(emp.getId());
+		} else {
+			columns.put(emp.getId(),
+					Objects.nonNull(emp.getDepartment()) ? emp.getDepartment().getId() : null,
+					Objects.nonNull(emp.getCreatedBy()) ? emp.getCreatedBy().getId() : null,
+					emp.getSalary(), emp.getHireDate(), emp.getCreatedAt(),
+					emp.getFirstName(), emp.getLastName(), emp.getEmail());
+		}
+	}
+
+	private void withWriteLock(Runnable action) {
+		lock.writeLock().lock();
+		try {
+			action.run();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+}
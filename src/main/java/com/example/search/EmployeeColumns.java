@@ -0,0 +1,186 @@
+package com.example.search;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/** Column arrays of the employee snapshot, one row per employee, rows ordered by id so that a row is
+ *  found by binary search. Numeric columns hold NULL_LONG / NULL_INT for SQL NULL, string columns hold
+ *  codes into a per-column dictionary (NULL_CODE for NULL). Deleted rows stay in place with their bit
+ *  in live cleared until they make up a quarter of the rows, then the arrays are compacted.
+ *  Not thread-safe, EmployeeColumnStore guards it.
+ */
+final class EmployeeColumns {
+
+	static final long NULL_LONG = Long.MIN_VALUE;
+	static final int NULL_INT = Integer.MIN_VALUE;
+	static final int NULL_CODE = -1;
+
+	private static final int INITIAL_CAPACITY = 1024;
+	private static final int MIN_DELETED_TO_COMPACT = 1024;
+
+	final StringDictionary firstNameDictionary = new StringDictionary();
+	final StringDictionary lastNameDictionary = new StringDictionary();
+	final StringDictionary emailDictionary = new StringDictionary();
+
+	int size;
+	private int deleted;
+
+	// One bit per row, set while the row holds an employee
+	long[] live = new long[INITIAL_CAPACITY / 64];
+	long[] ids = new long[INITIAL_CAPACITY];
+	long[] departmentIds = new long[INITIAL_CAPACITY];
+	long[] createdByIds = new long[INITIAL_CAPACITY];
+	long[] salaryCents = new long[INITIAL_CAPACITY];
+	int[] hireDays = new int[INITIAL_CAPACITY];
+	long[] createdAtMicros = new long[INITIAL_CAPACITY];
+	int[] firstNames = new int[INITIAL_CAPACITY];
+	int[] lastNames = new int[INITIAL_CAPACITY];
+	int[] emails = new int[INITIAL_CAPACITY];
+
+	int liveRows() {
+		return size - deleted;
+	}
+
+	void put(long id, Long departmentId, Long createdById, BigDecimal salary, LocalDate hireDate,
+			LocalDateTime createdAt, String firstName, String lastName, String email) {
+		int row = Arrays.binarySearch(ids, 0, size, id);
+		if (row < 0) {
+			row = -row - 1;
+			insertRow(row);
+			ids[row] = id;
+		} else if (!isLive(row)) {
+			deleted--;
+		}
+		live[row >>> 6] |= 1L << row;
+		departmentIds[row] = Objects.nonNull(departmentId) ? departmentId : NULL_LONG;
+		createdByIds[row] = Objects.nonNull(createdById) ? createdById : NULL_LONG;
+		// Rounded the way DECIMAL(10,2) stores it
+		salaryCents[row] = Objects.nonNull(salary) ? salary.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact()
+				: NULL_LONG;
+		hireDays[row] = Objects.nonNull(hireDate) ? Math.toIntExact(hireDate.toEpochDay()) : NULL_INT;
+		createdAtMicros[row] = Objects.nonNull(createdAt) ? micros(createdAt) : NULL_LONG;
+		firstNames[row] = firstNameDictionary.code(firstName);
+		lastNames[row] = lastNameDictionary.code(lastName);
+		emails[row] = emailDictionary.code(email);
+	}
+
+	void remove(long id) {
+		int row = Arrays.binarySearch(ids, 0, size, id);
+		if (row < 0 || !isLive(row)) return;
+		live[row >>> 6] &= ~(1L << row);
+		deleted++;
+		if (deleted >= MIN_DELETED_TO_COMPACT && deleted > size / 4) {
+			compact();
+		}
+	}
+
+	static long micros(LocalDateTime dateTime) {
+		return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dateTime.getNano() / 1_000;
+	}
+
+	private boolean isLive(int row) {
+		return (live[row >>> 6] & (1L << row)) != 0;
+	}
+
+	/** Makes room for a row at index row, shifting the rows from there on up by one. Ids normally
+	 *  arrive in ascending order, so this is an append.
+	 */
+	private void insertRow(int row) {
+		if (size == ids.length) {
+			grow();
+		}
+		if (row < size) {
+			int moved = size - row;
+			System.arraycopy(ids, row, ids, row + 1, moved);
+			System.arraycopy(departmentIds, row, departmentIds, row + 1, moved);
+			System.arraycopy(createdByIds, row, createdByIds, row + 1, moved);
+			System.arraycopy(salaryCents, row, salaryCents, row + 1, moved);
+			System.arraycopy(hireDays, row, hireDays, row + 1, moved);
+			System.arraycopy(createdAtMicros, row, createdAtMicros, row + 1, moved);
+			System.arraycopy(firstNames, row, firstNames, row + 1, moved);
+			System.arraycopy(lastNames, row, lastNames, row + 1, moved);
+			System.arraycopy(emails, row, emails, row + 1, moved);
+			for (int r = size; r > row; r--) {
+				if (isLive(r - 1)) {
+					live[r >>> 6] |= 1L << r;
+				} else {
+					live[r >>> 6] &= ~(1L << r);
+				}
+			}
+		}
+		size++;
+	}
+
+	private void grow() {
+		int capacity = ids.length * 2;
+		live = Arrays.copyOf(live, capacity / 64);
+		ids = Arrays.copyOf(ids, capacity);
+		departmentIds = Arrays.copyOf(departmentIds, capacity);
+		createdByIds = Arrays.copyOf(createdByIds, capacity);
+		salaryCents = Arrays.copyOf(salaryCents, capacity);
+		hireDays = Arrays.copyOf(hireDays, capacity);
+		createdAtMicros = Arrays.copyOf(createdAtMicros, capacity);
+		firstNames = Arrays.copyOf(firstNames, capacity);
+		lastNames = Arrays.copyOf(lastNames, capacity);
+		emails = Arrays.copyOf(emails, capacity);
+	}
+
+	private void compact() {
+		int target = 0;
+		for (int row = 0; row < size; row++) {
+			if (!isLive(row)) continue;
+			ids[target] = ids[row];
+			departmentIds[target] = departmentIds[row];
+			createdByIds[target] = createdByIds[row];
+			salaryCents[target] = salaryCents[row];
+			hireDays[target] = hireDays[row];
+			createdAtMicros[target] = createdAtMicros[row];
+			firstNames[target] = firstNames[row];
+			lastNames[target] = lastNames[row];
+			emails[target] = emails[row];
+			target++;
+		}
+		Arrays.fill(live, 0L);
+		for (int row = 0; row < target; row++) {
+			live[row >>> 6] |= 1L << row;
+		}
+		size = target;
+		deleted = 0;
+	}
+
+	/** Distinct values of a string column. Codes are never reused, values that no row has any more
+	 *  stay until the next full build.
+	 */
+	static final class StringDictionary {
+
+		private final Map<String, Integer> codes = new HashMap<>();
+		private final List<String> values = new ArrayList<>();
+
+		int code(String value) {
+			if (Objects.isNull(value)) return NULL_CODE;
+			return codes.computeIfAbsent(value, key -> {
+				values.add(key);
+				return values.size() - 1;
+			});
+		}
+
+		/** Which codes stand for a value the test accepts. */
+		boolean[] matching(Predicate<String> test) {
+			boolean[] matching = new boolean[values.size()];
+			for (int code = 0; code < matching.length; code++) {
+				matching[code] = test.test(values.get(code));
+			}
+			return matching;
+		}
+	}
+}
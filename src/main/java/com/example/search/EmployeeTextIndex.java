@@ -0,0 +1,171 @@
+package com.example.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.entity.Department;
+import com.example.entity.Employee;
+import com.example.listener.EntityChangedEvent;
+import com.example.listener.EntityChangedEvent.ChangeType;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+
+/** In-memory trigram index over employee firstName, lastName, email and department name, used to
+ *  answer EmployeeSpecification.searchByText style substring searches without a full table scan.
+ *  It is built when the application starts and kept current from committed entity changes.
+ *  search() returns empty whenever the index cannot answer (disabled, still building, query shorter
+ *  than a trigram, too many matches), in which case callers fall back to the SQL LIKE search.
+ *  Matches are the ones searchByText finds: the text is lower-cased with Locale.ROOT and matched
+ *  literally, and employees without a department are left out as by its inner join of departments.
+ */
+@Slf4j
+@Component
+public class EmployeeTextIndex {
+
+	private final boolean enabled;
+	private final int maxCandidates;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final TrigramIndex employees = new TrigramIndex();
+	private final TrigramIndex departments = new TrigramIndex();
+	private final Map<Long, Long> departmentOfEmployee = new HashMap<>();
+	private final Map<Long, Roaring64Bitmap> employeesOfDepartment = new HashMap<>();
+
+	// Changes committed while the initial build is running, replayed once it is done
+	private List<EntityChangedEvent> pendingChanges = new ArrayList<>();
+	private volatile boolean ready;
+
+	@PersistenceContext
+	private EntityManager em;
+
+	public EmployeeTextIndex(@Value("${app.search.trigram.enabled:false}") boolean enabled,
+			@Value("${app.search.trigram.max-candidates:5000}") int maxCandidates) {
+		this.enabled = enabled;
+		this.maxCandidates = maxCandidates;
+	}
+
+	public Optional<Set<Long>> search(String searchText) {
+		if (!ready || Objects.isNull(searchText) || searchText.trim().length() < 3) {
+			return Optional.empty();
+		}
+		String query = searchText.toLowerCase(Locale.ROOT);
+		lock.readLock().lock();
+		try {
+			Roaring64Bitmap matches = new Roaring64Bitmap();
+			employees.candidates(query).forEach(id -> {
+				if (departmentOfEmployee.containsKey(id) && employees.verify(id, query)) matches.addLong(id);
+			});
+			departments.candidates(query).forEach(departmentId -> {
+				Roaring64Bitmap members = employeesOfDepartment.get(departmentId);
+				if (Objects.nonNull(members) && departments.verify(departmentId, query)) matches.or(members);
+			});
+			if (matches.getLongCardinality() > maxCandidates) {
+				return Optional.empty();
+			}
+			Set<Long> ids = new HashSet<>();
+			matches.forEach(ids::add);
+			return Optional.of(ids);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	public void build() {
+		if (!enabled) return;
+		long start = System.currentTimeMillis();
+		try (Stream<Object[]> rows = em.createQuery(
+				"select d.id, d.departmentName from Department d", Object[].class).getResultStream()) {
+			rows.forEach(row -> withWriteLock(() -> departments.put((Long) row[0], (String) row[1])));
+		}
+		try (Stream<Object[]> rows = em.createQuery(
+				"select e.id, e.firstName, e.lastName, e.email, e.department.id from Employee e", Object[].class)
+				.getResultStream()) {
+			rows.forEach(row -> withWriteLock(() -> putEmployee((Long) row[0], (String) row[1], (String) row[2],
+					(String) row[3], (Long) row[4])));
+		}
+		withWriteLock(() -> {
+			pendingChanges.forEach(this::apply);
+			pendingChanges = null;
+			ready = true;
+		});
+		log.info("Trigram index built over {} employees and {} departments in {} ms", employees.size(),
+				departments.size(), System.currentTimeMillis() - start);
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onEntityChanged(EntityChangedEvent event) {
+		if (!enabled || !(event.isFor(Employee.class) || event.isFor(Department.class))) return;
+		withWriteLock(() -> {
+			if (ready) {
+				apply(event);
+			} else {
+				pendingChanges.add(event);
+			}
+		});
+	}
+
+	private void apply(EntityChangedEvent event) {
+		if (event.entity() instanceof Employee emp) {
+			if (event.type() == ChangeType.DELETE) {
+				removeEmployee(emp.getId());
+			} else {
+				putEmployee(emp.getId(), emp.getFirstName(), emp.getLastName(), emp.getEmail(),
+						Objects.nonNull(emp.getDepartment()) ? emp.getDepartment().getId() : null);
+			}
+		} else if (event.entity() instanceof Department dept) {
+			if (event.type() == ChangeType.DELETE) {
+				departments.remove(dept.getId());
+			} else {
+				departments.put(dept.getId(), dept.getDepartmentName());
+			}
+		}
+	}
+
+	private void putEmployee(Long id, String firstName, String lastName, String email, Long departmentId) {
+		removeEmployee(id);
+		employees.put(id, firstName, lastName, email);
+		if (Objects.nonNull(departmentId)) {
+			departmentOfEmployee.put(id, departmentId);
+			employeesOfDepartment.computeIfAbsent(departmentId, key -> new Roaring64Bitmap()).addLong(id);
+		}
+	}
+
+	private void removeEmployee(Long id) {
+		employees.remove(id);
+		Long departmentId = departmentOfEmployee.remove(id);
+		if (Objects.nonNull(departmentId)) {
+			employeesOfDepartment.get(departmentId).removeLong(id);
+		}
+	}
+
+	private void withWriteLock(Runnable action) {
+		lock.writeLock().lock();
+		try {
+			action.run();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+}
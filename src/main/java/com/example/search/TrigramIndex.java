@@ -0,0 +1,85 @@
+package com.example.search;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+/** Inverted index from character trigrams to document ids, for substring search.
+ *  A query of three or more characters is resolved by intersecting the postings of its trigrams;
+ *  the intersection may contain false positives, which verify() weeds out against the stored text.
+ *  Not thread-safe, callers guard it with their own lock.
+ */
+public class TrigramIndex {
+
+	// Separates the fields of a document so that no trigram and no match spans two fields
+	private static final char FIELD_SEPARATOR = '\u0000';
+
+	private final Map<Long, Roaring64Bitmap> postings = new HashMap<>();
+	private final Map<Long, String> documents = new HashMap<>();
+
+	public void put(long id, String... fields) {
+		remove(id);
+		StringBuilder text = new StringBuilder();
+		for (String field : fields) {
+			if (Objects.nonNull(field)) {
+				text.append(field.toLowerCase(Locale.ROOT));
+			}
+			text.append(FIELD_SEPARATOR);
+		}
+		String document = text.toString();
+		documents.put(id, document);
+		forEachTrigram(document, trigram -> postings.computeIfAbsent(trigram, key -> new Roaring64Bitmap()).addLong(id));
+	}
+
+	public void remove(long id) {
+		String document = documents.remove(id);
+		if (Objects.isNull(document)) return;
+		forEachTrigram(document, trigram -> {
+			Roaring64Bitmap ids = postings.get(trigram);
+			if (Objects.nonNull(ids)) {
+				ids.removeLong(id);
+				if (ids.isEmpty()) postings.remove(trigram);
+			}
+		});
+	}
+
+	/** Ids of the documents that contain every trigram of the (lower-cased) query. */
+	public Roaring64Bitmap candidates(String query) {
+		Roaring64Bitmap[] result = new Roaring64Bitmap[1];
+		forEachTrigram(query, trigram -> {
+			Roaring64Bitmap ids = postings.getOrDefault(trigram, new Roaring64Bitmap());
+			if (result[0] == null) {
+				result[0] = ids.clone();
+			} else {
+				result[0].and(ids);
+			}
+		});
+		return Objects.isNull(result[0]) ? new Roaring64Bitmap() : result[0];
+	}
+
+	/** Whether one of the fields of the document really contains the (lower-cased) query. */
+	public boolean verify(long id, String query) {
+		String document = documents.get(id);
+		return Objects.nonNull(document) && document.contains(query);
+	}
+
+	public int size() {
+		return documents.size();
+	}
+
+	private static void forEachTrigram(String text, TrigramConsumer consumer) {
+		for (int i = 0; i + 3 <= text.length(); i++) {
+			// Three UTF-16 chars packed into one long key
+			long trigram = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+			consumer.accept(trigram);
+		}
+	}
+
+	@FunctionalInterface
+	private interface TrigramConsumer {
+		void accept(long trigram);
+	}
+}
@@ -0,0 +1,88 @@
+package com.example.search;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+/** Bitmap index of one low-cardinality string column: per distinct value, the keys of the rows that
+ *  hold it. Values are compared case-insensitively, as under MySQL's default _ci collations.
+ *  Since there are few values, a row is moved by removing its key from all of them, so no key to
+ *  value map is kept. Not thread-safe, BitmapIndexes guards it.
+ */
+final class ValueBitmaps {
+
+	private final Map<String, Roaring64Bitmap> bitmaps = new HashMap<>();
+
+	void put(long key, String value) {
+		remove(key);
+		if (Objects.nonNull(value)) {
+			bitmaps.computeIfAbsent(normalize(value), k -> new Roaring64Bitmap()).addLong(key);
+		}
+	}
+
+	void remove(long key) {
+		for (Iterator<Roaring64Bitmap> it = bitmaps.values().iterator(); it.hasNext();) {
+			Roaring64Bitmap bitmap = it.next();
+			bitmap.removeLong(key);
+			if (bitmap.isEmpty()) it.remove();
+		}
+	}
+
+	/** Keys of the rows for which "column operation values" holds in SQL: equal and in OR the bitmaps of
+	 *  the values, notEqual is every non-null row ANDNOT the value's bitmap.
+	 */
+	Roaring64Bitmap matching(String operation, List<String> values) {
+		Roaring64Bitmap result = new Roaring64Bitmap();
+		switch (operation) {
+			case "equal", "in" -> values.forEach(value -> {
+				Roaring64Bitmap bitmap = bitmaps.get(normalize(value));
+				if (Objects.nonNull(bitmap)) result.or(bitmap);
+			});
+			case "notEqual" -> {
+				bitmaps.values().forEach(result::or);
+				Roaring64Bitmap excluded = bitmaps.get(normalize(values.get(0)));
+				if (Objects.nonNull(excluded)) result.andNot(excluded);
+			}
+			default -> throw new IllegalArgumentException("Not a bitmap operation: " + operation);
+		}
+		return result;
+	}
+
+	/** The cardinality of matching(operation, values), without building the bitmap: a row holds one value,
+	 *  so the bitmaps of distinct values are disjoint.
+	 */
+	long matchingCount(String operation, List<String> values) {
+		return switch (operation) {
+			case "equal", "in" -> values.stream().map(ValueBitmaps::normalize).distinct().mapToLong(this::count).sum();
+			case "notEqual" -> keys() - count(normalize(values.get(0)));
+			default -> throw new IllegalArgumentException("Not a bitmap operation: " + operation);
+		};
+	}
+
+	/** Rows with a non-null value. */
+	long keys() {
+		return bitmaps.values().stream().mapToLong(Roaring64Bitmap::getLongCardinality).sum();
+	}
+
+	int values() {
+		return bitmaps.size();
+	}
+
+	long sizeInBytes() {
+		return bitmaps.values().stream().mapToLong(Roaring64Bitmap::getLongSizeInBytes).sum();
+	}
+
+	private long count(String normalized) {
+		Roaring64Bitmap bitmap = bitmaps.get(normalized);
+		return Objects.isNull(bitmap) ? 0 : bitmap.getLongCardinality();
+	}
+
+	private static String normalize(String value) {
+		return value.toLowerCase(Locale.ROOT);
+	}
+}
@@ -1,29 +1,74 @@
 package com.example.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
 
+import com.example.cache.DepartmentQuery;
+import com.example.cache.DepartmentQueryCache;
+import com.example.cache.SearchTotalCache;
+import com.example.concurrency.JdbcAdmissionGate;
+import com.example.concurrency.SingleFlight;
 import com.example.dto.DepartmentDto;
+import com.example.dto.DepartmentStats;
 import com.example.dto.EmployeeDto;
+import com.example.dto.EmployeeProjectsDto;
+import com.example.dto.EmployeeProjectsResponse;
 import com.example.dto.EmployeeResponse;
+import com.example.dto.EmployeeStats;
+import com.example.dto.FieldSet;
+import com.example.dto.KeysetCursor;
 import com.example.dto.PageMetadata;
+import com.example.dto.ProjectAssignment;
+import com.example.dto.ProjectAssignmentDto;
+import com.example.dto.RecordFields;
 import com.example.dto.SearchFilter;
 import com.example.entity.Department;
 import com.example.entity.Employee;
+import com.example.entity.Project;
+import com.example.metrics.QueryMetrics;
+import com.example.replica.ReadOnlyContext;
 import com.example.repository.DepartmentRepository;
+import com.example.repository.EmployeeDtoQueries;
 import com.example.repository.EmployeeRepository;
+import com.example.repository.EmployeeStatsRepository;
+import com.example.repository.ProjectRepository;
+import com.example.search.EmployeeColumnStore;
+import com.example.search.EmployeeTextIndex;
+import com.example.shard.ShardedEmployeeQueries;
+import com.example.shard.ShardedEmployeeStats;
 import com.example.specification.DepartmentSpecification;
+import com.example.specification.EmployeeSortKeys;
 import com.example.specification.EmployeeSpecification;
+import com.example.specification.FetchPlan;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -31,153 +76,445 @@ import lombok.extern.slf4j.Slf4j;
 @Service
 public class CommonService {
 	
+	// Everything the export writes per row, joined into the cursor's row
+	private static final FetchPlan<Employee> EXPORT_FETCH_PLAN = FetchPlan.of(Employee.class)
+			.join("department")
+			.join("createdBy");
+	
+	// Ids per IN list when reading the rows the columnar snapshot matched
+	private static final int ID_BATCH_SIZE = 1000;
 	
     private final EmployeeRepository empRepo;
+    // The repository itself, or the scatter-gather over all shards when app.sharding is enabled
+    private final EmployeeDtoQueries employeeQueries;
+    // Only set with app.sharding, for the calls that are not EmployeeDtoQueries
+    private final ShardedEmployeeQueries shardedQueries;
+    private final ShardedEmployeeStats shardedStats;
     private final DepartmentRepository deptRepo;
+    private final EmployeeStatsRepository statsRepo;
+    private final ProjectRepository projectRepo;
+    private final SearchTotalCache totalCache;
+    private final DepartmentQueryCache departmentCache;
+    private final EmployeeTextIndex textIndex;
+    private final EmployeeColumnStore columnStore;
+    private final ObjectMapper objectMapper;
+    private final QueryMetrics queryMetrics;
+    private final JdbcAdmissionGate admissionGate;
+    private final SingleFlight singleFlight;
+    private final int exportFetchSize;
+    private final boolean rollupEnabled;
+    // app.search.mode=prefix: index-friendly prefix matching instead of substring matching
+    private final boolean prefixSearch;
 
     public CommonService(EmployeeRepository empRepo,
-    		DepartmentRepository deptRepo) {
+    		ObjectProvider<ShardedEmployeeQueries> shardedQueries,
+    		DepartmentRepository deptRepo,
+    		EmployeeStatsRepository statsRepo,
+    		ObjectProvider<ShardedEmployeeStats> shardedStats,
+    		ProjectRepository projectRepo,
+    		SearchTotalCache totalCache,
+    		DepartmentQueryCache departmentCache,
+    		EmployeeTextIndex textIndex,
+    		EmployeeColumnStore columnStore,
+    		ObjectMapper objectMapper,
+    		QueryMetrics queryMetrics,
+    		JdbcAdmissionGate admissionGate,
+    		SingleFlight singleFlight,
+    		@Value("${app.export.fetch-size:1000}") int exportFetchSize,
+    		@Value("${app.stats.rollup.enabled:false}") boolean rollupEnabled,
+    		@Value("${app.search.mode:contains}") String searchMode) {
         this.empRepo = empRepo;
+        this.employeeQueries = Objects.requireNonNullElse(shardedQueries.getIfAvailable(), empRepo);
+        this.shardedQueries = shardedQueries.getIfAvailable();
+        this.shardedStats = shardedStats.getIfAvailable();
         this.deptRepo = deptRepo;
+        this.statsRepo = statsRepo;
+        this.projectRepo = projectRepo;
+        this.totalCache = totalCache;
+        this.departmentCache = departmentCache;
+        this.textIndex = textIndex;
+        this.columnStore = columnStore;
+        this.objectMapper = objectMapper;
+        this.queryMetrics = queryMetrics;
+        this.admissionGate = admissionGate;
+        this.singleFlight = singleFlight;
+        this.exportFetchSize = exportFetchSize;
+        this.rollupEnabled = rollupEnabled;
+        this.prefixSearch = "prefix".equalsIgnoreCase(searchMode);
     }
     
     /** Approach 1: Creating filed based specification and adding 'AND'/'OR' as needed.
+     *  Results are served from DepartmentQueryCache until a Department or User change commits.
+     *  Only the given fields are selected (FieldSet.ALL for every field).
      */
-    @SuppressWarnings("removal")
 	public List<DepartmentDto> fetchDepartments(String location, BigDecimal budget, String createdBy,
-    		LocalDateTime startDate, LocalDateTime endDate){
-    	log.info("Start of fetchDepartments with params: location {}, budget {}, createdBy {},"
+    		LocalDateTime startDate, LocalDateTime endDate, FieldSet fields){
+    	log.debug("Start of fetchDepartments with params: location {}, budget {}, createdBy {},"
     			+ " startDate {}, endDate {}", location, budget, createdBy, startDate, endDate);
     	
+    	// budget compared by value, 800000 and 800000.00 are the same query
+    	List<?> parameters = Arrays.asList(location, Objects.nonNull(budget) ? budget.stripTrailingZeros() : null,
+    			createdBy, startDate, endDate, fields);
+    	return executeCoalesced("fetchDepartments", "DepartmentSpecification", parameters, () -> {
+	    	List<DepartmentDto> departments = departmentCache.get(
+	    			new DepartmentQuery(location, budget, createdBy, startDate, endDate, fields),
+	    			() -> queryDepartments(location, budget, createdBy, startDate, endDate, fields));
+	    	if(!CollectionUtils.isEmpty(departments)) {
+	    		log.debug("Total records fetched: {}", departments.size());
+	    		return departments;
+	    	}
+	    	return null;
+    	});
+    }
+    
+    @SuppressWarnings("removal")
+    private List<DepartmentDto> queryDepartments(String location, BigDecimal budget, String createdBy,
+    		LocalDateTime startDate, LocalDateTime endDate, FieldSet fields) {
+    	Specification<Department> createdBetweenSpec = DepartmentSpecification
+    			.createdBetweenDates(startDate, endDate);
+    	if(prefixSearch) {
+    		return deptRepo.findAllDto(DepartmentSpecification.hasLocation(location)
+    				.and(DepartmentSpecification.budgetGreaterThen(budget))
+    				.and(DepartmentSpecification.createdByPrefix(createdBy))
+    				.and(createdBetweenSpec), fields);
+    	}
     	Specification<Department> locationSpec = DepartmentSpecification.hasLocation(location);
     	Specification<Department> createdBySpec = DepartmentSpecification.createdByLike(createdBy);
     	Specification<Department> budgetSpec = DepartmentSpecification.budgetGreaterThen(budget);
-    	Specification<Department> createdBetweenSpec = DepartmentSpecification
-    			.createdBetweenDates(startDate, endDate);
     	
     	Specification<Department> combinedSpec = Specification
     			.where(locationSpec)
     			.and(createdBySpec)
     			.and(budgetSpec)
     			.and(createdBetweenSpec); // only add or clause of specification is present
-    	List<Department> departments = deptRepo.findAll(combinedSpec);
-    	if(!CollectionUtils.isEmpty(departments)) {
-    		log.info("Total records fetched: {}", departments.size());
-    		return departments.stream().map(this::covertToDepartmentDto).collect(Collectors.toList());
-    	}
-    	return null;
+    	return deptRepo.findAllDto(combinedSpec, fields);
     }
     
     
     /** Approach 2: Creating a specification across multiple fields.
      */
-    public List<EmployeeDto> searchEmployees(String searchText) {
-    	log.info("Start of searchEmployees, searchText {} ", searchText);
-    	Specification<Employee> spec = EmployeeSpecification.searchByText(searchText);
-    	List<Employee> employees = empRepo.findAll(spec);
-    	if(!CollectionUtils.isEmpty(employees)) {
-    		log.info("Total records fetched: {}", employees.size());
-    		return employees.stream().map(this::covertToEmployeeDto).collect(Collectors.toList());
-    	}
-    	return null;
+    public List<EmployeeDto> searchEmployees(String searchText, FieldSet fields) {
+    	log.debug("Start of searchEmployees, searchText {} ", searchText);
+    	return executeCoalesced("searchEmployees", "searchByText", Arrays.asList(searchText, fields), () -> {
+	    	Specification<Employee> spec = searchSpec(searchText);
+	    	List<EmployeeDto> employees = employeeQueries.findAllDto(spec, fields);
+	    	if(!CollectionUtils.isEmpty(employees)) {
+	    		log.debug("Total records fetched: {}", employees.size());
+	    		return employees;
+	    	}
+	    	return null;
+    	});
     }
     
-    public List<EmployeeDto> getAllEmployeeByDepartmentCreatedBy(String username) {
-    	log.info("Start of getAllEmployeeByDepartmentCreatedBy, username {} ", username);
-    	Specification<Employee> spec = EmployeeSpecification.empByDeptCreatedBy(username);
-    	List<Employee> employees = empRepo.findAll(spec);
-    	if(!CollectionUtils.isEmpty(employees)) {
-    		log.info("Total records fetched: {}", employees.size());
-    		return employees.stream().map(this::covertToEmployeeDto).collect(Collectors.toList());
-    	}
-    	return null;
+    public List<EmployeeDto> getAllEmployeeByDepartmentCreatedBy(String username, FieldSet fields) {
+    	log.debug("Start of getAllEmployeeByDepartmentCreatedBy, username {} ", username);
+    	return executeCoalesced("getAllEmployeeByDepartmentCreatedBy", "empByDeptCreatedBy",
+    			Arrays.asList(username, fields), () -> {
+	    	Specification<Employee> spec = EmployeeSpecification.empByDeptCreatedBy(username);
+	    	List<EmployeeDto> employees = employeeQueries.findAllDto(spec, fields);
+	    	if(!CollectionUtils.isEmpty(employees)) {
+	    		log.debug("Total records fetched: {}", employees.size());
+	    		return employees;
+	    	}
+	    	return null;
+    	});
     }    
     
-    /** Approach 3: Creating a dynamic specification based on fields and values.
+    /** Approach 3: Creating a dynamic query based on fields and values.
+     *  Same operations as EmployeeSpecification.byFilters, compiled once per filter shape with the
+     *  values bound as parameters (see FilterQueryCompiler). With app.columnar.enabled the filters are
+     *  evaluated against the in-memory snapshot and only the matching rows are read by id.
      */    
-	public List<EmployeeDto> getEmployeesByFilter(List<SearchFilter> filters) {
-    	log.info("Start of getEmployeesByFilter");
-    	Specification<Employee> spec = EmployeeSpecification.byFilters(filters);
-    	List<Employee> employees = empRepo.findAll(spec);
-    	if(!CollectionUtils.isEmpty(employees)) {
-    		log.info("Total records fetched: {}", employees.size());
-    		return employees.stream().map(this::covertToEmployeeDto).collect(Collectors.toList());
+	public List<EmployeeDto> getEmployeesByFilter(List<SearchFilter> filters, FieldSet fields) {
+    	log.debug("Start of getEmployeesByFilter");
+    	return execute("getEmployeesByFilter", "compiledFilter", () -> {
+	    	List<EmployeeDto> employees = columnStore.match(filters)
+	    			.map(ids -> findAllDtoByIds(ids, fields))
+	    			.orElseGet(() -> employeeQueries.findAllDto(filters, fields));
+	    	if(!CollectionUtils.isEmpty(employees)) {
+	    		log.debug("Total records fetched: {}", employees.size());
+	    		return employees;
+	    	}
+	    	return null;
+    	});
+	}    
+    
+    /** Salary aggregates, headcount per department location and hires per month of the employees
+     *  matching the filters, each a single GROUP BY query.
+     */
+    public EmployeeStats getEmployeeStats(List<SearchFilter> filters) {
+    	log.debug("Start of getEmployeeStats");
+    	if (Objects.nonNull(shardedStats)) {
+    		return execute("getEmployeeStats", "compiledFilter", () -> shardedStats.employeeStats(filters));
+    	}
+    	return execute("getEmployeeStats", "compiledFilter", () -> EmployeeStats.builder()
+    			.salary(statsRepo.salaryStats(filters))
+    			.headcountByLocation(statsRepo.headcountByLocation(filters))
+    			.hiresByMonth(statsRepo.hiresByMonth(filters))
+    			.build());
+    }
+    
+    /** Headcount and salary aggregates per department of the employees matching the filters. Without
+     *  filters the numbers are read from department_salary_rollup when app.stats.rollup is enabled.
+     */
+    public List<DepartmentStats> getDepartmentStats(List<SearchFilter> filters) {
+    	log.debug("Start of getDepartmentStats");
+    	if (rollupEnabled && CollectionUtils.isEmpty(filters)) {
+    		return execute("getDepartmentStats", "rollup", statsRepo::departmentStatsFromRollup);
     	}
-    	return null;
+    	if (Objects.nonNull(shardedStats)) {
+    		return execute("getDepartmentStats", "compiledFilter", () -> shardedStats.departmentStats(filters));
+    	}
+    	return execute("getDepartmentStats", "compiledFilter", () -> statsRepo.departmentStats(filters));
+    }
+    
+    /** Streams the employees matching the filters as newline-delimited JSON, one row at a time off a
+     *  forward-only cursor. Each entity is detached once written, so memory stays flat whatever the
+     *  number of rows, and the first rows are flushed as soon as they arrive. With sharding the shards
+     *  are streamed one after the other.
+     */
+    @Transactional(readOnly = true)
+	public void streamEmployeesByFilter(List<SearchFilter> filters, OutputStream out) throws IOException {
+    	log.debug("Start of streamEmployeesByFilter, fetchSize {}", exportFetchSize);
+    	execute("streamEmployeesByFilter", "compiledFilter", () -> {
+	    	// Rows are separated by a newline instead of the default space between root values, and flushed
+	    	// by writeRows once per fetched batch rather than after every row
+	    	ObjectWriter writer = objectMapper.writerFor(EmployeeDto.class).withRootValueSeparator("\n")
+	    			.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+	    	long count;
+	    	try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+	    		generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+	    		if (Objects.isNull(shardedQueries)) {
+	    			count = writeRows(empRepo, filters, writer, generator, 0);
+	    		} else {
+	    			// The shards compile the filters on pool threads, outside this call's metrics sample
+	    			QueryMetrics.filters(Employee.class, filters);
+	    			long[] written = { 0 };
+	    			try {
+	    				shardedQueries.forEachShard(repo -> {
+	    					try {
+	    						written[0] = writeRows(repo, filters, writer, generator, written[0]);
+	    					} catch (IOException e) {
+	    						throw new UncheckedIOException(e);
+	    					}
+	    				});
+	    			} catch (UncheckedIOException e) {
+	    				throw e.getCause();
+	    			}
+	    			count = written[0];
+	    		}
+	    		if (count > 0) {
+	    			generator.writeRaw('\n');
+	    		}
+	    	}
+	    	log.info("Total records streamed: {}", count);
+	    	QueryMetrics.rows(count);
+	    	return null;
+    	});
 	}    
     
+    /** Writes the rows of one cursor, returns the number of rows written including the earlier ones. */
+    private long writeRows(EmployeeRepository repo, List<SearchFilter> filters, ObjectWriter writer,
+    		JsonGenerator generator, long count) throws IOException {
+    	try (Stream<Employee> employees = repo.streamAll(filters, EXPORT_FETCH_PLAN, exportFetchSize)) {
+    		for (Employee emp : (Iterable<Employee>) employees::iterator) {
+    			writer.writeValue(generator, QueryMetrics.mapping(() -> DtoMapper.toEmployeeDto(emp)));
+    			repo.detach(emp);
+    			// Flush the first row right away, then once per fetched batch
+    			if (count++ % exportFetchSize == 0) {
+    				generator.flush();
+    			}
+    		}
+    	}
+    	return count;
+    }
+    
     /** Example of specification with pagination and sorting.
+     *  When 'after' carries a cursor from a previous response the page is located with a seek
+     *  predicate instead of an OFFSET, so the cost of a page does not grow with its depth.
+     *  With withTotal=false no count query is run: the page is fetched as a Slice and the total,
+     *  if any, is the one cached from the last counted request for the same searchText.
+     *  id and the field holding the sort key are selected whatever the fields, the next cursor is built
+     *  from them.
      */ 	
-    public EmployeeResponse getEmployeesBySearch(String searchText, Integer page, Integer size, String sortBy, String sortOrder) {
-    	log.info("Start of getEmployeesBySearch, searchText {}, pageNo {}, pageSize {}, sortBy {}, sortOrder {} ",
-    			searchText, page, size, sortBy, sortOrder);
-    	
+    public EmployeeResponse getEmployeesBySearch(String searchText, Integer page, Integer size, String sortBy,
+    		String sortOrder, String after, boolean withTotal, FieldSet fields) {
+    	log.debug("Start of getEmployeesBySearch, searchText {}, pageNo {}, pageSize {}, sortBy {}, sortOrder {}, after {}, withTotal {} ",
+    			searchText, page, size, sortBy, sortOrder, after, withTotal);
+    	return executeCoalesced("getEmployeesBySearch", "searchByText",
+    			pageParameters(searchText, page, size, sortBy, sortOrder, after, withTotal, fields),
+    			() -> searchPage(searchText, page, size, sortBy, sortOrder, after, withTotal,
+    					fields.with("id", Objects.requireNonNullElse(EmployeeSortKeys.dtoField(sortBy), "id"))));
+    }
+    
+    /** The same pages as getEmployeesBySearch, each employee with its projects and the role and status of
+     *  each assignment. Loaded in two phases so that the cost of a page follows its size: the page of
+     *  employees through the search Specification first, then the employee_projects rows of just those
+     *  employees and the projects they name, one IN query each. Fetch-joining Employee.projects into the
+     *  paged query instead would make Hibernate apply the limit in memory, over every assignment of
+     *  every matching employee.
+     */
+    public EmployeeProjectsResponse getEmployeesWithProjects(String searchText, Integer page, Integer size, String sortBy,
+    		String sortOrder, String after, boolean withTotal) {
+    	log.debug("Start of getEmployeesWithProjects, searchText {}, pageNo {}, pageSize {}, sortBy {}, sortOrder {}, after {}, withTotal {} ",
+    			searchText, page, size, sortBy, sortOrder, after, withTotal);
+    	return executeCoalesced("getEmployeesWithProjects", "searchByText",
+    			pageParameters(searchText, page, size, sortBy, sortOrder, after, withTotal, FieldSet.ALL), () -> {
+    		EmployeeResponse employees = searchPage(searchText, page, size, sortBy, sortOrder, after, withTotal, FieldSet.ALL);
+    		List<Long> ids = employees.data().stream().map(EmployeeDto::id).toList();
+    		List<ProjectAssignment> assignments = ids.isEmpty() ? List.of() : employeeQueries.findProjectAssignments(ids);
+    		List<Long> projectIds = assignments.stream().map(ProjectAssignment::projectId).distinct().toList();
+    		Map<Long, Project> projects = projectIds.isEmpty() ? Map.of()
+    				: projectRepo.findAllById(projectIds).stream().collect(Collectors.toMap(Project::getId, Function.identity()));
+    		log.debug("Total assignments fetched: {}, projects: {}", assignments.size(), projects.size());
+    		return QueryMetrics.mapping(() -> {
+    			Map<Long, List<ProjectAssignmentDto>> projectsOfEmployee = new LinkedHashMap<>();
+    			for (ProjectAssignment assignment : assignments) {
+    				projectsOfEmployee.computeIfAbsent(assignment.employeeId(), id -> new ArrayList<>())
+    						.add(DtoMapper.toProjectAssignmentDto(assignment, projects.get(assignment.projectId())));
+    			}
+    			return EmployeeProjectsResponse.builder()
+    					.data(employees.data().stream()
+    							.map(emp -> new EmployeeProjectsDto(emp, projectsOfEmployee.getOrDefault(emp.id(), List.of())))
+    							.toList())
+    					.pageMetadata(employees.pageMetadata())
+    					.build();
+    		});
+    	});
+    }
+    
+    private EmployeeResponse searchPage(String searchText, Integer page, Integer size, String sortBy,
+    		String sortOrder, String after, boolean withTotal, FieldSet fields) {
     	// Client sends page=1 for the first page, but JPA uses 0-based indexing (page=0 is first).
     	int pageNo = Objects.nonNull(page) ? page.intValue()-1 : 0;
     			
     	// Setting the default page size to 10
     	int pageSize = Objects.nonNull(size) ? size.intValue() : 10;
     	
-    	Sort sort = sortOrder.equalsIgnoreCase("desc") 
-                ? Sort.by(sortBy).descending() 
-                : Sort.by(sortBy).ascending();
+    	Sort.Direction direction = sortOrder.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+    	Sort sort = Sort.by(direction, sortBy);
+    	if (!"id".equals(sortBy)) {
+    		// id breaks ties so that every row has a unique position, which the cursor relies on
+    		sort = sort.and(Sort.by(direction, "id"));
+    	}
+    	
+    	Specification<Employee> spec = searchSpec(searchText);
+    	
+    	if (StringUtils.hasText(after)) {
+    		if (Objects.isNull(EmployeeSortKeys.dtoField(sortBy))) {
+    			throw new IllegalArgumentException("sortBy " + sortBy + " does not support cursor pagination, use page instead");
+    		}
+    		KeysetCursor cursor = KeysetCursor.decode(after);
+    		if (!cursor.matches(sortBy, sortOrder)) {
+    			throw new IllegalArgumentException("Cursor was issued for a different sortBy/sortOrder");
+    		}
+    		// One extra row tells whether there is a next page without running a count query
+    		List<EmployeeDto> employees = employeeQueries.findAllDto(spec.and(EmployeeSpecification.seekAfter(cursor)),
+    				sort, pageSize + 1, fields);
+    		log.debug("Total records fetched: {}", employees.size());
+    		boolean hasNext = employees.size() > pageSize;
+    		return prepareEmployeeResponse(hasNext ? employees.subList(0, pageSize) : employees, null, pageSize,
+    				hasNext, totalCache.get(searchText), true, sortBy, sortOrder);
+    	}
     	
     	PageRequest pageRequest = PageRequest.of(pageNo, pageSize, sort);
     	
-    	Specification<Employee> spec = EmployeeSpecification.searchByText(searchText);
+    	if (!withTotal) {
+    		Slice<EmployeeDto> employees = employeeQueries.findDtoSlice(spec, pageRequest, fields);
+    		log.debug("Total records fetched: {}", employees.getNumberOfElements());
+    		return prepareEmployeeResponse(employees.getContent(), pageNo + 1, pageSize, employees.hasNext(),
+    				totalCache.get(searchText), true, sortBy, sortOrder);
+    	}
     	
-    	Page<Employee> employees = empRepo.findAll(spec, pageRequest);
-		log.info("Total records fetched: {}", employees.getNumberOfElements());
-		return prepareEmployeeResponse(employees);
+    	Page<EmployeeDto> employees = employeeQueries.findAllDto(spec, pageRequest, fields);
+		log.debug("Total records fetched: {}", employees.getNumberOfElements());
+		totalCache.put(searchText, employees.getTotalElements());
+		return prepareEmployeeResponse(employees.getContent(), pageNo + 1, pageSize, employees.hasNext(),
+				employees.getTotalElements(), false, sortBy, sortOrder);
     }
 	
-	private EmployeeResponse prepareEmployeeResponse(Page<Employee> entities) {
-		List<EmployeeDto> emps = entities.stream().map(this::covertToEmployeeDto).toList();
-		
-		PageMetadata pageMetadata = PageMetadata.builder()
-				.pageNumber(entities.getNumber() +1)
-				.pageSize(entities.getSize())
-				.noOfElements(entities.getNumberOfElements())
-				.totalElements(entities.getTotalPages())
-				.totalPages(entities.getTotalPages())
-				.build();
-		
-		return EmployeeResponse.builder()
+	private EmployeeResponse prepareEmployeeResponse(List<EmployeeDto> emps, Integer pageNumber, int pageSize,
+			boolean hasNext, Long totalElements, boolean fromCache, String sortBy, String sortOrder) {
+		return QueryMetrics.mapping(() -> EmployeeResponse.builder()
 				.data(emps)
-				.pageMetadata(pageMetadata)
-				.build();
-	}    
+				.pageMetadata(pageMetadata(emps, pageNumber, pageSize, hasNext, totalElements, fromCache, sortBy, sortOrder))
+				.build());
+	}
 	
+	private PageMetadata pageMetadata(List<EmployeeDto> emps, Integer pageNumber, int pageSize,
+			boolean hasNext, Long totalElements, boolean fromCache, String sortBy, String sortOrder) {
+		return PageMetadata.builder()
+				.pageNumber(pageNumber)
+				.pageSize(pageSize)
+				.noOfElements(emps.size())
+				.totalElements(totalElements)
+				.totalPages(Objects.nonNull(totalElements) ? (int) ((totalElements + pageSize - 1) / pageSize) : null)
+				.totalCached(fromCache && Objects.nonNull(totalElements))
+				.nextCursor(hasNext ? nextCursor(emps, sortBy, sortOrder) : null)
+				.build();
+	}
 	
-    private EmployeeDto covertToEmployeeDto(Employee emp) {
-    	return EmployeeDto.builder()
-    	.id(emp.getId())
-    	.createdAt(emp.getCreatedAt())
-    	.createdBy(emp.getCreatedBy().getUsername())
-    	.createdById(emp.getCreatedBy().getId())
-    	.departmentId(emp.getDepartment().getId())
-    	.departmentName(emp.getDepartment().getDepartmentName())
-    	.email(emp.getEmail())
-    	.firstName(emp.getFirstName())
-    	.hireDate(emp.getHireDate())
-    	.lastName(emp.getLastName())
-    	.salary(emp.getSalary())
-    	.build();
+    /** Runs a service call once admitted to the database, as read-only work that may be served by a
+     *  replica, and records its query metrics.
+     */
+    private <T, E extends Exception> T execute(String method, String specification, QueryMetrics.Call<T, E> call) throws E {
+    	return admissionGate.admit(() -> ReadOnlyContext.call(() -> queryMetrics.record(method, specification, call)));
+    }
+    
+    /** execute() behind SingleFlight: concurrent calls with equal parameters share one execution and its
+     *  result, so a burst of identical requests costs one query.
+     */
+    private <T> T executeCoalesced(String method, String specification, List<?> parameters,
+    		QueryMetrics.Call<T, RuntimeException> call) {
+    	return singleFlight.call(method, parameters, () -> execute(method, specification, call));
     }
     
-    private DepartmentDto covertToDepartmentDto(Department emp) {
-    	return DepartmentDto.builder()
-    	.id(emp.getId())
-    	.departmentName(emp.getDepartmentName())
-    	.location(emp.getLocation())
-    	.manager(emp.getManager())
-    	.budget(emp.getBudget())
-    	.createdAt(emp.getCreatedAt())
-    	.createdBy(emp.getCreatedBy().getUsername())
-    	.build();
+    /** The parameters of a search page with the defaults searchPage applies filled in. */
+    private static List<?> pageParameters(String searchText, Integer page, Integer size, String sortBy,
+    		String sortOrder, String after, boolean withTotal, FieldSet fields) {
+    	return Arrays.asList(searchText, Objects.requireNonNullElse(page, 1), Objects.requireNonNullElse(size, 10),
+    			sortBy, sortOrder.equalsIgnoreCase("desc") ? "desc" : "asc", after, withTotal, fields);
+    }
+    
+    /** The trigram index resolves the search to matching ids when it is enabled and can answer,
+     *  otherwise the search runs as LIKE predicates in SQL. In prefix mode the search always runs in SQL,
+     *  as prefix predicates the column indexes can answer.
+     */
+    private Specification<Employee> searchSpec(String searchText) {
+    	if(prefixSearch) {
+    		QueryMetrics.specification("searchByPrefix");
+    		return EmployeeSpecification.searchByPrefix(searchText);
+    	}
+    	return textIndex.search(searchText)
+    			.map(ids -> {
+    				QueryMetrics.specification("idIn");
+    				return EmployeeSpecification.idIn(ids);
+    			})
+    			.orElseGet(() -> EmployeeSpecification.searchByText(searchText));
+    }
+    
+    private List<EmployeeDto> findAllDtoByIds(List<Long> ids, FieldSet fields) {
+    	QueryMetrics.specification("columnar");
+    	List<EmployeeDto> employees = new ArrayList<>(ids.size());
+    	for (int from = 0; from < ids.size(); from += ID_BATCH_SIZE) {
+    		List<Long> batch = ids.subList(from, Math.min(from + ID_BATCH_SIZE, ids.size()));
+    		employees.addAll(employeeQueries.findAllDto(EmployeeSpecification.idIn(batch), fields));
+    	}
+    	return employees;
     }
-
-
-
 	
+	/** Null when no EmployeeDto field carries the sort key (e.g. department.location), such pages are
+	 *  reached by page number only.
+	 */
+	private String nextCursor(List<EmployeeDto> content, String sortBy, String sortOrder) {
+		String sortField = EmployeeSortKeys.dtoField(sortBy);
+		if (Objects.isNull(sortField)) {
+			return null;
+		}
+		EmployeeDto last = content.get(content.size() - 1);
+		return KeysetCursor.of(sortBy, sortOrder, last.id(), RecordFields.read(last, sortField)).encode();
+	}
+	
+	
+
 }
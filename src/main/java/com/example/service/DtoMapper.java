@@ -0,0 +1,60 @@
+package com.example.service;
+
+import java.util.Objects;
+
+import com.example.dto.DepartmentDto;
+import com.example.dto.EmployeeDto;
+import com.example.dto.ProjectAssignment;
+import com.example.dto.ProjectAssignmentDto;
+import com.example.entity.Department;
+import com.example.entity.Employee;
+import com.example.entity.Project;
+
+/** Entity to DTO mapping for the paths that materialize entities (the NDJSON export, the projects of a
+ *  page of employees); the read endpoints project straight into the DTOs in their queries. Kept stateless and public so benchmarks can call it.
+ */
+public final class DtoMapper {
+
+	private DtoMapper() {
+	}
+
+    public static EmployeeDto toEmployeeDto(Employee emp) {
+    	return EmployeeDto.builder()
+    	.id(emp.getId())
+    	.createdAt(emp.getCreatedAt())
+    	.createdBy(Objects.nonNull(emp.getCreatedBy()) ? emp.getCreatedBy().getUsername() : null)
+    	.createdById(Objects.nonNull(emp.getCreatedBy()) ? emp.getCreatedBy().getId() : null)
+    	.departmentId(Objects.nonNull(emp.getDepartment()) ? emp.getDepartment().getId() : null)
+    	.departmentName(Objects.nonNull(emp.getDepartment()) ? emp.getDepartment().getDepartmentName() : null)
+    	.email(emp.getEmail())
+    	.firstName(emp.getFirstName())
+    	.hireDate(emp.getHireDate())
+    	.lastName(emp.getLastName())
+    	.salary(emp.getSalary())
+    	.build();
+    }
+
+    public static DepartmentDto toDepartmentDto(Department dept) {
+    	return DepartmentDto.builder()
+    	.id(dept.getId())
+    	.departmentName(dept.getDepartmentName())
+    	.location(dept.getLocation())
+    	.manager(dept.getManager())
+    	.budget(dept.getBudget())
+    	.createdAt(dept.getCreatedAt())
+    	.createdBy(Objects.nonNull(dept.getCreatedBy()) ? dept.getCreatedBy().getUsername() : null)
+    	.build();
+    }
+
+    public static ProjectAssignmentDto toProjectAssignmentDto(ProjectAssignment assignment, Project project) {
+    	return ProjectAssignmentDto.builder()
+    	.projectId(assignment.projectId())
+    	.projectName(project.getProjectName())
+    	.category(project.getCategory())
+    	.startDate(project.getStartDate())
+    	.endDate(project.getEndDate())
+    	.role(assignment.role())
+    	.status(assignment.status())
+    	.build();
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.dto.BulkImportResult;
+import com.example.dto.BulkImportResult.ChunkFailure;
+import com.example.dto.EmployeeDto;
+import com.example.entity.Department;
+import com.example.entity.Employee;
+import com.example.entity.User;
+import com.example.listener.EntityChangedEvent;
+import com.example.listener.EntityChangedEvent.ChangeType;
+import com.example.repository.EmployeeBulkWriter;
+import com.example.shard.ShardContext;
+import com.example.shard.ShardedEmployeeQueries;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/** Bulk employee ingestion. Rows are read one at a time from a JSON array or NDJSON body and written in
+ *  chunks of app.bulk.chunk-size, each chunk a single JDBC batch in its own transaction. Department and
+ *  createdBy references are resolved against id/name maps loaded once per request, by id when the row
+ *  has one, else by departmentName / createdBy username.
+ *  With app.sharding each row is written to the shard of its department (rows without one to shard 0), so
+ *  a chunk is committed once per shard it touches and a failure covers the rows of that shard only.
+ *  Since the rows bypass the persistence context, the EntityChangedEvents the entity listener would have
+ *  published are published here, and the second-level cache of Department.employees is evicted for the
+ *  departments a chunk touched.
+ */
+@Slf4j
+@Service
+public class EmployeeBulkService {
+
+	private static final String DEPARTMENT_EMPLOYEES = Department.class.getName() + ".employees";
+
+	private final EmployeeBulkWriter writer;
+	// Only set with app.sharding
+	private final ShardedEmployeeQueries shards;
+	private final TransactionTemplate transactionTemplate;
+	private final ApplicationEventPublisher publisher;
+	private final ObjectMapper objectMapper;
+	private final SessionFactory sessionFactory;
+	private final int chunkSize;
+
+	public EmployeeBulkService(EmployeeBulkWriter writer,
+			ObjectProvider<ShardedEmployeeQueries> shards,
+			TransactionTemplate transactionTemplate,
+			ApplicationEventPublisher publisher,
+			ObjectMapper objectMapper,
+			EntityManagerFactory emf,
+			@Value("${app.bulk.chunk-size:1000}") int chunkSize) {
+		this.writer = writer;
+		this.shards = shards.getIfAvailable();
+		this.transactionTemplate = transactionTemplate;
+		this.publisher = publisher;
+		this.objectMapper = objectMapper;
+		this.sessionFactory = emf.unwrap(SessionFactory.class);
+		this.chunkSize = chunkSize;
+	}
+
+	public BulkImportResult importEmployees(InputStream body) throws IOException {
+		long start = System.nanoTime();
+		References departments = References.of("department", writer.departmentNames());
+		References users = References.of("user", writer.usernames());
+
+		List<ChunkFailure> failures = new ArrayList<>();
+		List<EmployeeDto> chunk = new ArrayList<>(chunkSize);
+		long received = 0;
+		long inserted = 0;
+		int chunkNumber = 1;
+		// readValues() accepts both a top-level array and a sequence of root values (NDJSON)
+		try (MappingIterator<EmployeeDto> rows = objectMapper.readerFor(EmployeeDto.class).readValues(body)) {
+			while (rows.hasNextValue()) {
+				chunk.add(rows.nextValue());
+				received++;
+				if (chunk.size() == chunkSize) {
+					inserted += writeChunk(chunkNumber++, received - chunk.size() + 1, chunk, departments, users, failures);
+					chunk.clear();
+				}
+			}
+			if (!chunk.isEmpty()) {
+				inserted += writeChunk(chunkNumber, received - chunk.size() + 1, chunk, departments, users, failures);
+			}
+		} catch (JsonProcessingException ex) {
+			// Chunks written so far stay committed, the partial chunk and the rest of the body are dropped
+			failures.add(new ChunkFailure(chunkNumber, received - chunk.size() + 1, chunk.size(),
+					"Malformed input after row " + received + ": " + ex.getOriginalMessage()));
+		}
+
+		long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+		double rowsPerSecond = Math.round(inserted * 1000.0 / elapsedMillis * 10) / 10.0;
+		log.info("Bulk import: received {}, inserted {} in {} ms ({} rows/s), {} chunk(s) failed", received,
+				inserted, elapsedMillis, rowsPerSecond, failures.size());
+		return BulkImportResult.builder()
+				.received(received)
+				.inserted(inserted)
+				.failed(received - inserted)
+				.elapsedMillis(elapsedMillis)
+				.rowsPerSecond(rowsPerSecond)
+				.failures(failures)
+				.build();
+	}
+
+	private int writeChunk(int chunkNumber, long firstRow, List<EmployeeDto> rows, References departments,
+			References users, List<ChunkFailure> failures) {
+		List<Employee> employees = new ArrayList<>(rows.size());
+		try {
+			for (int i = 0; i < rows.size(); i++) {
+				employees.add(toEmployee(rows.get(i), firstRow + i, departments, users));
+			}
+		} catch (IllegalArgumentException ex) {
+			return failed(chunkNumber, firstRow, rows.size(), ex.getMessage(), failures);
+		}
+		if (Objects.isNull(shards)) {
+			return insert(chunkNumber, firstRow, employees, failures);
+		}
+		// Each row goes to the shard of its department, in one transaction per shard the chunk touches
+		Map<Integer, List<Employee>> byShard = employees.stream().collect(Collectors.groupingBy(
+				emp -> Objects.isNull(emp.getDepartment()) ? 0 : shards.shardOf(emp.getDepartment().getId()),
+				TreeMap::new, Collectors.toList()));
+		int inserted = 0;
+		for (Map.Entry<Integer, List<Employee>> shard : byShard.entrySet()) {
+			inserted += shards.onShard(shard.getKey(), () -> insert(chunkNumber, firstRow, shard.getValue(), failures));
+		}
+		return inserted;
+	}
+
+	private int insert(int chunkNumber, long firstRow, List<Employee> employees, List<ChunkFailure> failures) {
+		try {
+			transactionTemplate.executeWithoutResult(status -> {
+				writer.insert(employees);
+				// Delivered to @TransactionalEventListeners once the chunk has committed
+				employees.forEach(emp -> publisher.publishEvent(new EntityChangedEvent(emp, ChangeType.INSERT)));
+			});
+			evictDepartmentEmployees(employees);
+			return employees.size();
+		} catch (DataAccessException ex) {
+			String error = ex.getMostSpecificCause().getMessage();
+			return failed(chunkNumber, firstRow, employees.size(),
+					Objects.isNull(shards) ? error : "Shard " + ShardContext.current() + ": " + error, failures);
+		}
+	}
+
+	private int failed(int chunkNumber, long firstRow, int rows, String error, List<ChunkFailure> failures) {
+		failures.add(new ChunkFailure(chunkNumber, firstRow, rows, error));
+		log.warn("Bulk import chunk {} (rows {}-{}) failed: {}", chunkNumber, firstRow, firstRow + rows - 1, error);
+		return 0;
+	}
+
+	private Employee toEmployee(EmployeeDto row, long rowNumber, References departments, References users) {
+		Long departmentId = departments.resolve(row.departmentId(), row.departmentName(), rowNumber);
+		Long createdById = users.resolve(row.createdById(), row.createdBy(), rowNumber);
+		return Employee.builder()
+				.firstName(row.firstName())
+				.lastName(row.lastName())
+				.email(row.email())
+				.hireDate(row.hireDate())
+				.salary(row.salary())
+				.department(Objects.isNull(departmentId) ? null : Department.builder().id(departmentId).build())
+				.createdBy(Objects.isNull(createdById) ? null : User.builder().id(createdById).build())
+				.createdAt(Objects.nonNull(row.createdAt()) ? row.createdAt() : LocalDateTime.now())
+				.build();
+	}
+
+	private void evictDepartmentEmployees(List<Employee> employees) {
+		Set<Long> departmentIds = employees.stream()
+				.filter(emp -> Objects.nonNull(emp.getDepartment()))
+				.map(emp -> emp.getDepartment().getId())
+				.collect(Collectors.toSet());
+		departmentIds.forEach(id -> sessionFactory.getCache().evictCollectionData(DEPARTMENT_EMPLOYEES, id));
+	}
+
+	/** Id lookup over a small reference table, by id or by a name that is unique in the table. */
+	private record References(String kind, Map<Long, String> names, Map<String, Long> ids) {
+
+		static References of(String kind, Map<Long, String> names) {
+			Map<String, Long> ids = new HashMap<>();
+			// A name that occurs more than once maps to null, it cannot identify a row
+			names.forEach((id, name) -> ids.put(name, ids.containsKey(name) ? null : id));
+			return new References(kind, names, ids);
+		}
+
+		Long resolve(Long id, String name, long rowNumber) {
+			if (Objects.nonNull(id)) {
+				if (!names.containsKey(id)) {
+					throw new IllegalArgumentException("Row " + rowNumber + ": unknown " + kind + " id " + id);
+				}
+				return id;
+			}
+			if (Objects.isNull(name)) {
+				return null;
+			}
+			if (!ids.containsKey(name)) {
+				throw new IllegalArgumentException("Row " + rowNumber + ": unknown " + kind + " '" + name + "'");
+			}
+			Long resolved = ids.get(name);
+			if (Objects.isNull(resolved)) {
+				throw new IllegalArgumentException("Row " + rowNumber + ": ambiguous " + kind + " '" + name + "'");
+			}
+			return resolved;
+		}
+	}
+}
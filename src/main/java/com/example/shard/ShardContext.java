@@ -0,0 +1,37 @@
+package com.example.shard;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/** The shard the current thread's connections are routed to by ShardRoutingDataSource. Threads that
+ *  never set one use shard 0, which also holds the departments and users every shard has a copy of.
+ */
+public final class ShardContext {
+
+	private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+	private ShardContext() {
+	}
+
+	public static int current() {
+		Integer shard = CURRENT.get();
+		return Objects.nonNull(shard) ? shard : 0;
+	}
+
+	/** Runs the action with connections routed to the given shard. Any transaction the action needs
+	 *  must be started inside it, a connection already bound to the thread stays where it is.
+	 */
+	public static <T> T call(int shard, Supplier<T> action) {
+		Integer previous = CURRENT.get();
+		CURRENT.set(shard);
+		try {
+			return action.get();
+		} finally {
+			if (Objects.isNull(previous)) {
+				CURRENT.remove();
+			} else {
+				CURRENT.set(previous);
+			}
+		}
+	}
+}
@@ -0,0 +1,249 @@
+package com.example.shard;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.dto.EmployeeDto;
+import com.example.dto.FieldSet;
+import com.example.dto.ProjectAssignment;
+import com.example.dto.RecordFields;
+import com.example.dto.SearchFilter;
+import com.example.entity.Employee;
+import com.example.metrics.QueryMetrics;
+import com.example.repository.EmployeeDtoQueries;
+import com.example.repository.EmployeeRepository;
+import com.example.specification.EmployeeSortKeys;
+
+import lombok.extern.slf4j.Slf4j;
+
+/** EmployeeDtoQueries over department-sharded databases (scatter-gather). Every query runs with the same
+ *  Specification on all shards in parallel, or only on the shards a department.id equal/in filter pins,
+ *  each in its own read-only transaction. Sorted results are merged with a k-way merge, so a page at
+ *  offset o is built from the first o + size rows of every shard; deep pages should use the keyset
+ *  cursor, which only needs size + 1 rows per shard. The merge reads the sort keys from the rows, so only
+ *  keys an EmployeeDto carries can be sorted on.
+ *  Rows are ordered in Java the way MySQL orders them: NULLs lowest and strings case-insensitively, as
+ *  under the default _ci collations. Employee ids must be unique across shards (e.g. MySQL
+ *  auto_increment_increment = number of shards and auto_increment_offset = shard number + 1), since id
+ *  is the tie-breaker of every page and cursor.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+public class ShardedEmployeeQueries implements EmployeeDtoQueries, DisposableBean {
+
+	private static final String DEPARTMENT_ID = "department.id";
+
+	private final EmployeeRepository empRepo;
+	private final TransactionTemplate readOnly;
+	private final int shards;
+	private final ExecutorService executor;
+
+	public ShardedEmployeeQueries(EmployeeRepository empRepo, PlatformTransactionManager transactionManager,
+			ShardingProperties sharding, Environment environment) {
+		this.empRepo = empRepo;
+		this.readOnly = new TransactionTemplate(transactionManager);
+		this.readOnly.setReadOnly(true);
+		this.shards = sharding.shards().size();
+		// More threads than connections would only wait for a connection
+		int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+		this.executor = Executors.newFixedThreadPool(shards * poolSize, new CustomizableThreadFactory("shard-query-"));
+	}
+
+	/** The shard that holds the employees of a department. */
+	public int shardOf(long departmentId) {
+		return (int) Math.floorMod(departmentId, (long) shards);
+	}
+
+	@Override
+	public List<EmployeeDto> findAllDto(Specification<Employee> spec, FieldSet fields) {
+		return concat(scatter(allShards(), repo -> repo.findAllDto(spec, fields)));
+	}
+
+	@Override
+	public List<EmployeeDto> findAllDto(Specification<Employee> spec, Sort sort, int limit, FieldSet fields) {
+		Comparator<EmployeeDto> order = order(sort);
+		return SortedMerge.merge(scatter(allShards(), repo -> repo.findAllDto(spec, sort, limit, fields)), order, 0, limit);
+	}
+
+	@Override
+	public Page<EmployeeDto> findAllDto(Specification<Employee> spec, Pageable pageable, FieldSet fields) {
+		Comparator<EmployeeDto> order = order(pageable.getSort());
+		PageRequest firstRows = PageRequest.of(0, rowsPerShard(pageable, 0), pageable.getSort());
+		List<Page<EmployeeDto>> pages = scatter(allShards(), repo -> repo.findAllDto(spec, firstRows, fields));
+		long total = pages.stream().mapToLong(Page::getTotalElements).sum();
+		List<EmployeeDto> rows = SortedMerge.merge(pages.stream().map(Page::getContent).toList(),
+				order, pageable.getOffset(), pageable.getPageSize());
+		return new PageImpl<>(rows, pageable, total);
+	}
+
+	@Override
+	public Slice<EmployeeDto> findDtoSlice(Specification<Employee> spec, Pageable pageable, FieldSet fields) {
+		Comparator<EmployeeDto> order = order(pageable.getSort());
+		int limit = rowsPerShard(pageable, 1);
+		List<EmployeeDto> rows = SortedMerge.merge(scatter(allShards(), repo -> repo.findAllDto(spec, pageable.getSort(), limit, fields)),
+				order, pageable.getOffset(), pageable.getPageSize() + 1);
+		boolean hasNext = rows.size() > pageable.getPageSize();
+		return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+	}
+
+	@Override
+	public List<EmployeeDto> findAllDto(List<SearchFilter> filters, FieldSet fields) {
+		// The shards compile the filters on pool threads, outside the caller's metrics sample
+		QueryMetrics.filters(Employee.class, filters);
+		return concat(scatter(shardsFor(filters), repo -> repo.findAllDto(filters, fields)));
+	}
+
+	/** employee_projects rows live on the shard of their employee, which the ids do not tell. */
+	@Override
+	public List<ProjectAssignment> findProjectAssignments(Collection<Long> employeeIds) {
+		return scatter(allShards(), repo -> repo.findProjectAssignments(employeeIds)).stream().flatMap(List::stream).toList();
+	}
+
+	/** Runs the query on every shard in parallel, each in a read-only transaction of its own; results in shard order. */
+	public <T> List<T> onEveryShard(Supplier<T> query) {
+		return scatter(allShards(), repo -> query.get());
+	}
+
+	/** Runs the action on one shard after the other, each time in a read-only transaction of that shard,
+	 *  e.g. to stream their rows in turn. It runs on a pool thread, where no transaction of the caller
+	 *  holds on to a connection of another shard.
+	 */
+	public void forEachShard(Consumer<EmployeeRepository> action) {
+		for (int shard : allShards()) {
+			scatter(List.of(shard), repo -> {
+				action.accept(repo);
+				return null;
+			});
+		}
+	}
+
+	/** Runs the action with connections routed to the shard, on a pool thread: the caller's thread may hold
+	 *  a persistence context (open-in-view) whose connection stays on the shard it was first taken from.
+	 *  The action starts whatever transaction it needs, e.g. to write to that shard.
+	 */
+	public <T> T onShard(int shard, Supplier<T> action) {
+		try {
+			return CompletableFuture.supplyAsync(() -> ShardContext.call(shard, action), executor).join();
+		} catch (CompletionException ex) {
+			if (ex.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw ex;
+		}
+	}
+
+	@Override
+	public void destroy() {
+		executor.shutdownNow();
+	}
+
+	/** Shards allowed by the department.id equal/in filters (they are and-ed), all shards without one. */
+	private List<Integer> shardsFor(List<SearchFilter> filters) {
+		Set<Integer> pinned = null;
+		for (SearchFilter filter : Objects.requireNonNullElse(filters, List.<SearchFilter>of())) {
+			if (!DEPARTMENT_ID.equals(filter.columnName())
+					|| !("equal".equals(filter.operation()) || "in".equals(filter.operation()))) {
+				continue;
+			}
+			Set<Integer> allowed = new TreeSet<>();
+			for (String value : filter.value().split(",")) {
+				try {
+					allowed.add(shardOf(Long.parseLong(value.trim())));
+				} catch (NumberFormatException ex) {
+					// Leave it to the query to reject the value
+					return allShards();
+				}
+			}
+			if (Objects.isNull(pinned)) {
+				pinned = allowed;
+			} else {
+				pinned.retainAll(allowed);
+			}
+		}
+		return Objects.isNull(pinned) ? allShards() : List.copyOf(pinned);
+	}
+
+	private List<Integer> allShards() {
+		return IntStream.range(0, shards).boxed().toList();
+	}
+
+	/** Runs the query on every given shard in parallel, results in shard order. */
+	private <T> List<T> scatter(List<Integer> targets, Function<EmployeeRepository, T> query) {
+		log.debug("Querying shards {}", targets);
+		List<CompletableFuture<T>> results = new ArrayList<>(targets.size());
+		for (int shard : targets) {
+			results.add(CompletableFuture.supplyAsync(
+					() -> ShardContext.call(shard, () -> readOnly.execute(status -> query.apply(empRepo))), executor));
+		}
+		try {
+			return results.stream().map(CompletableFuture::join).toList();
+		} catch (CompletionException ex) {
+			results.forEach(result -> result.cancel(true));
+			if (ex.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw ex;
+		}
+	}
+
+	private static int rowsPerShard(Pageable pageable, int extra) {
+		return (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize() + extra);
+	}
+
+	private static List<EmployeeDto> concat(List<List<EmployeeDto>> results) {
+		return results.stream().flatMap(List::stream).toList();
+	}
+
+	/** The order of the rows in Java, resolved before any shard is queried. The rows have to carry the value
+	 *  of every sort key to be merged, so the others (e.g. department.location) are rejected.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Comparator<EmployeeDto> order(Sort sort) {
+		Comparator<EmployeeDto> order = (left, right) -> 0;
+		for (Sort.Order property : sort) {
+			Comparator<Object> values = Comparator.nullsFirst((left, right) -> left instanceof String l && right instanceof String r
+					? String.CASE_INSENSITIVE_ORDER.compare(l, r)
+					: ((Comparable) left).compareTo(right));
+			// The row field with the sort key's value, e.g. departmentName for department.departmentName
+			String field = EmployeeSortKeys.dtoField(property.getProperty());
+			if (Objects.isNull(field)) {
+				throw new IllegalArgumentException("sortBy " + property.getProperty()
+						+ " is not supported with app.sharding, the rows of the shards cannot be merged on it");
+			}
+			Function<EmployeeDto, Object> value = RecordFields.accessor(EmployeeDto.class, field);
+			Comparator<EmployeeDto> byProperty = Comparator.comparing(value, values);
+			order = order.thenComparing(property.isDescending() ? byProperty.reversed() : byProperty);
+		}
+		return order;
+	}
+}
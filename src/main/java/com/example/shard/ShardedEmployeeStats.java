@@ -0,0 +1,117 @@
+package com.example.shard;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.BinaryOperator;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.dto.DepartmentStats;
+import com.example.dto.EmployeeStats;
+import com.example.dto.LocationHeadcount;
+import com.example.dto.MonthlyHires;
+import com.example.dto.SalaryStats;
+import com.example.dto.SearchFilter;
+import com.example.entity.Employee;
+import com.example.metrics.QueryMetrics;
+import com.example.repository.EmployeeStatsRepository;
+
+/** The aggregates of EmployeeStatsRepository over department-sharded databases: computed on every shard
+ *  in parallel and combined here. Counts and sums add up, min and max are taken over the shards, the
+ *  average is weighted by the number of salaries each shard averaged. The employees of a department all
+ *  live on one shard, so the per-department numbers of the shards are simply put together.
+ *  Groups are ordered the way MySQL orders them (see ShardedEmployeeQueries).
+ */
+@Component
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+public class ShardedEmployeeStats {
+
+	private static final Comparator<String> LOCATION_ORDER = Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER);
+	private static final Comparator<MonthlyHires> MONTH_ORDER = Comparator
+			.comparing(MonthlyHires::year, Comparator.nullsFirst(Comparator.<Integer>naturalOrder()))
+			.thenComparing(MonthlyHires::month, Comparator.nullsFirst(Comparator.<Integer>naturalOrder()));
+
+	private final ShardedEmployeeQueries shards;
+	private final EmployeeStatsRepository statsRepo;
+
+	public ShardedEmployeeStats(ShardedEmployeeQueries shards, EmployeeStatsRepository statsRepo) {
+		this.shards = shards;
+		this.statsRepo = statsRepo;
+	}
+
+	public EmployeeStats employeeStats(List<SearchFilter> filters) {
+		// The shards compile the filters on pool threads, outside the caller's metrics sample
+		QueryMetrics.filters(Employee.class, filters);
+		List<ShardStats> results = shards.onEveryShard(() -> new ShardStats(statsRepo.salaryStats(filters),
+				statsRepo.salaryCount(filters), statsRepo.headcountByLocation(filters), statsRepo.hiresByMonth(filters)));
+		return EmployeeStats.builder()
+				.salary(salary(results))
+				.headcountByLocation(headcountByLocation(results))
+				.hiresByMonth(hiresByMonth(results))
+				.build();
+	}
+
+	public List<DepartmentStats> departmentStats(List<SearchFilter> filters) {
+		QueryMetrics.filters(Employee.class, filters);
+		List<DepartmentStats> stats = new ArrayList<>();
+		shards.onEveryShard(() -> statsRepo.departmentStats(filters)).forEach(stats::addAll);
+		stats.sort(Comparator.comparing(DepartmentStats::departmentId));
+		return stats;
+	}
+
+	private static SalaryStats salary(List<ShardStats> results) {
+		long count = 0;
+		long salaries = 0;
+		BigDecimal sum = null;
+		BigDecimal min = null;
+		BigDecimal max = null;
+		double weightedAvg = 0;
+		for (ShardStats result : results) {
+			SalaryStats salary = result.salary();
+			count += salary.count();
+			sum = combine(sum, salary.sum(), BigDecimal::add);
+			min = combine(min, salary.min(), BigDecimal::min);
+			max = combine(max, salary.max(), BigDecimal::max);
+			if (result.salaries() > 0) {
+				salaries += result.salaries();
+				weightedAvg += salary.avg() * result.salaries();
+			}
+		}
+		return new SalaryStats(count, sum, salaries > 0 ? weightedAvg / salaries : null, min, max);
+	}
+
+	private static List<LocationHeadcount> headcountByLocation(List<ShardStats> results) {
+		Map<String, Long> headcounts = new TreeMap<>(LOCATION_ORDER);
+		results.forEach(result -> result.headcountByLocation()
+				.forEach(row -> headcounts.merge(row.location(), row.headcount(), Long::sum)));
+		return headcounts.entrySet().stream()
+				.map(entry -> new LocationHeadcount(entry.getKey(), entry.getValue()))
+				.toList();
+	}
+
+	private static List<MonthlyHires> hiresByMonth(List<ShardStats> results) {
+		Map<MonthlyHires, Long> hires = new TreeMap<>(MONTH_ORDER);
+		results.forEach(result -> result.hiresByMonth()
+				.forEach(row -> hires.merge(row, row.hires(), Long::sum)));
+		return hires.entrySet().stream()
+				.map(entry -> new MonthlyHires(entry.getKey().year(), entry.getKey().month(), entry.getValue()))
+				.toList();
+	}
+
+	private static <T> T combine(T left, T right, BinaryOperator<T> operator) {
+		return Objects.isNull(left) ? right : Objects.isNull(right) ? left : operator.apply(left, right);
+	}
+
+	/** What one shard contributes to EmployeeStats; salaries is the number of salaries its avg is over. */
+	private record ShardStats(SalaryStats salary,
+							  long salaries,
+							  List<LocationHeadcount> headcountByLocation,
+							  List<MonthlyHires> hiresByMonth) {
+	}
+}
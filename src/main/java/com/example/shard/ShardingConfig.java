@@ -0,0 +1,55 @@
+package com.example.shard;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.example.config.HikariPools;
+import com.example.shard.ShardingProperties.Shard;
+
+/** Replaces the single spring.datasource with one Hikari pool per shard behind a ShardRoutingDataSource.
+ *  The pools are configured like spring.datasource, see HikariPools. Cannot be combined with the features
+ *  that keep a copy of the employees built from one database (trigram index, columnar snapshot, bitmap
+ *  indexes, salary rollup).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+	// Built from shard 0 only, they would miss the employees of every other shard
+	private static final List<String> SINGLE_DATABASE_FEATURES = List.of("app.search.trigram.enabled",
+			"app.columnar.enabled", "app.bitmap-index.enabled", "app.stats.rollup.enabled");
+
+	@Bean
+	public DataSource dataSource(ShardingProperties sharding, DataSourceProperties defaults,
+			Environment environment) {
+		if (sharding.shards() == null || sharding.shards().isEmpty()) {
+			throw new IllegalStateException("app.sharding.enabled is set but app.sharding.shards is empty");
+		}
+		for (String feature : SINGLE_DATABASE_FEATURES) {
+			if (environment.getProperty(feature, Boolean.class, false)) {
+				throw new IllegalStateException(feature + " and app.sharding cannot be enabled together");
+			}
+		}
+		Map<Object, Object> targets = new HashMap<>();
+		for (int i = 0; i < sharding.shards().size(); i++) {
+			Shard shard = sharding.shards().get(i);
+			targets.put(i, HikariPools.create("shard-" + i, shard.url(), shard.username(), shard.password(), defaults, environment));
+		}
+		ShardRoutingDataSource routing = new ShardRoutingDataSource();
+		routing.setTargetDataSources(targets);
+		routing.setDefaultTargetDataSource(targets.get(0));
+		routing.setLenientFallback(false);
+		return routing;
+	}
+}
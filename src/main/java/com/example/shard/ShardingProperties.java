@@ -0,0 +1,15 @@
+package com.example.shard;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** app.sharding: employees are partitioned by department_id mod shards.size() over these databases.
+ *  Each shard holds its employees and a full copy of departments and users.
+ */
+@ConfigurationProperties(prefix = "app.sharding")
+public record ShardingProperties(boolean enabled, List<Shard> shards) {
+
+	public record Shard(String url, String username, String password) {
+	}
+}
@@ -0,0 +1,42 @@
+package com.example.shard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/** k-way merge of lists that are each sorted by the same comparator. */
+final class SortedMerge {
+
+	private SortedMerge() {
+	}
+
+	private record Head<T>(T value, int source, Iterator<T> rest) {
+	}
+
+	/** Rows skip to skip + limit of the merged order. */
+	static <T> List<T> merge(List<List<T>> sorted, Comparator<? super T> order, long skip, int limit) {
+		// The source index keeps rows that compare equal in shard order, like a stable sort would
+		Comparator<Head<T>> byValue = Comparator.<Head<T>, T>comparing(Head::value, order).thenComparingInt(Head::source);
+		PriorityQueue<Head<T>> heads = new PriorityQueue<>(Math.max(1, sorted.size()), byValue);
+		for (int i = 0; i < sorted.size(); i++) {
+			Iterator<T> rows = sorted.get(i).iterator();
+			if (rows.hasNext()) {
+				heads.add(new Head<>(rows.next(), i, rows));
+			}
+		}
+		List<T> merged = new ArrayList<>(Math.min(limit, 1024));
+		long position = 0;
+		while (!heads.isEmpty() && merged.size() < limit) {
+			Head<T> head = heads.poll();
+			if (position++ >= skip) {
+				merged.add(head.value());
+			}
+			if (head.rest().hasNext()) {
+				heads.add(new Head<>(head.rest().next(), head.source(), head.rest()));
+			}
+		}
+		return merged;
+	}
+}
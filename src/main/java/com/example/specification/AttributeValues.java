@@ -0,0 +1,24 @@
+package com.example.specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/** Converts request values, which always arrive as text, into the Java type of the entity attribute
+ *  they are compared with.
+ */
+public class AttributeValues {
+
+	public static Object convert(String value, Class<?> type) {
+		if (Objects.isNull(value) || type.isInstance(value)) return value;
+		if (type == Long.class || type == long.class) return Long.valueOf(value);
+		if (type == Integer.class || type == int.class) return Integer.valueOf(value);
+		if (type == BigDecimal.class) return new BigDecimal(value);
+		if (type == LocalDate.class) return LocalDate.parse(value);
+		if (type == LocalDateTime.class) return LocalDateTime.parse(value);
+		if (type == Boolean.class || type == boolean.class) return Boolean.valueOf(value);
+		throw new IllegalArgumentException("Unsupported attribute type: " + type.getSimpleName());
+	}
+
+}
@@ -0,0 +1,50 @@
+package com.example.specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Function;
+
+import com.example.dto.SearchFilter;
+
+import jakarta.persistence.Query;
+
+/** JPQL where clause compiled for one FilterShape, with a named parameter per filter and the Java
+ *  type each filter value has to be converted to before it is bound. For filters answered by a bitmap
+ *  index, idSets holds the lookup from the filter value to the ids bound instead (null for the others).
+ */
+public record CompiledFilter(String where,
+							 List<String> operations,
+							 List<Class<?>> types,
+							 List<Function<String, List<Long>>> idSets) {
+
+	/** Binds the values of filters that have this compiled filter's shape. */
+	public void bind(Query query, List<SearchFilter> filters) {
+		for (int i = 0; i < operations.size(); i++) {
+			Function<String, List<Long>> ids = idSets.get(i);
+			query.setParameter(parameterName(i), Objects.nonNull(ids)
+					? ids.apply(filters.get(i).value())
+					: value(operations.get(i), types.get(i), filters.get(i).value()));
+		}
+	}
+
+	static String parameterName(int index) {
+		return "f" + index;
+	}
+
+	private static Object value(String operation, Class<?> type, String value) {
+		return switch (operation) {
+			case "like" -> "%" + value.toLowerCase(Locale.ROOT) + "%";
+			case "startsWith" -> LikePatterns.prefix(value);
+			case "in" -> {
+				List<Object> values = new ArrayList<>();
+				for (String item : value.split(",")) {
+					values.add(AttributeValues.convert(item, type));
+				}
+				yield values;
+			}
+			default -> AttributeValues.convert(value, type);
+		};
+	}
+}
@@ -9,6 +9,7 @@ import org.springframework.util.StringUtils;
 
 import com.example.entity.Department;
 
+
 public class DepartmentSpecification {
 	
 	public static Specification<Department> hasLocation(String location){
@@ -22,7 +23,19 @@ public class DepartmentSpecification {
 		return (root, query, cb) -> {
 			if(!StringUtils.hasText(createdBy)) return cb.conjunction();
 			String text = "%" + createdBy + "%";
-			return cb.like(cb.lower(root.join("createdBy").get("username")), text.toLowerCase());
+			return Joins.inner(root, "createdBy", cb,
+					user -> cb.like(cb.lower(user.get("username")), text.toLowerCase()));
+		};
+	}
+
+	/** Index-friendly variant of createdByLike: username starts with createdBy, compared on the raw column
+	 *  (case-insensitive under the default _ci collations), so the unique index on users.username is used.
+	 */
+	public static Specification<Department> createdByPrefix(String createdBy){
+		return (root, query, cb) -> {
+			if(!StringUtils.hasText(createdBy)) return cb.conjunction();
+			return Joins.inner(root, "createdBy", cb,
+					user -> cb.like(user.get("username"), LikePatterns.prefix(createdBy), LikePatterns.ESCAPE));
 		};
 	}
 
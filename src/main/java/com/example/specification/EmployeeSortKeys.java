@@ -0,0 +1,48 @@
+package com.example.specification;
+
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.data.mapping.PropertyReferenceException;
+
+import com.example.entity.Employee;
+
+/** sortBy values of the employee pages, resolved the way the offset Sort resolves them (departmentId is
+ *  department.id, dotted paths go through the associations). Keyset pagination supports the sort keys
+ *  whose value an EmployeeDto carries, since the next cursor is read from the last row of a page.
+ */
+public final class EmployeeSortKeys {
+
+	// Entity path of a sort key -> EmployeeDto component holding its value
+	private static final Map<String, String> DTO_FIELDS = Map.ofEntries(
+			Map.entry("id", "id"),
+			Map.entry("firstName", "firstName"),
+			Map.entry("lastName", "lastName"),
+			Map.entry("email", "email"),
+			Map.entry("hireDate", "hireDate"),
+			Map.entry("salary", "salary"),
+			Map.entry("createdAt", "createdAt"),
+			Map.entry("department.id", "departmentId"),
+			Map.entry("department.departmentName", "departmentName"),
+			Map.entry("createdBy.id", "createdById"),
+			Map.entry("createdBy.username", "createdBy"));
+
+	private EmployeeSortKeys() {
+	}
+
+	/** The EmployeeDto component with the value of sortBy, null if sortBy cannot be used with a cursor. */
+	public static String dtoField(String sortBy) {
+		PropertyPath path = propertyPath(sortBy);
+		return Objects.nonNull(path) ? DTO_FIELDS.get(path.toDotPath()) : null;
+	}
+
+	/** sortBy as a property path of Employee, null if it names no property. */
+	static PropertyPath propertyPath(String sortBy) {
+		try {
+			return PropertyPath.from(sortBy, Employee.class);
+		} catch (PropertyReferenceException | IllegalArgumentException e) {
+			return null;
+		}
+	}
+}
@@ -3,13 +3,18 @@ package com.example.specification;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.mapping.PropertyPath;
 
+import com.example.dto.KeysetCursor;
 import com.example.dto.SearchFilter;
 import com.example.entity.Employee;
+import com.example.metrics.QueryMetrics;
 
-import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.From;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.JoinType;
@@ -18,23 +23,96 @@ import jakarta.persistence.criteria.Predicate;
 
 public class EmployeeSpecification {
 
+	private static final FetchPlan<Employee> DEPT_CREATED_BY = FetchPlan.of(Employee.class)
+			.join("department", JoinType.INNER)
+			.join("department.createdBy", JoinType.INNER);
+
 	
+    /** Substring search over firstName, lastName, email and the department name. The text matches
+        literally (its % and _ are escaped) and is lower-cased with Locale.ROOT, the way EmployeeTextIndex
+        normalizes it, so that both return the same employees.
+     */
     public static Specification<Employee> searchByText(String searchText) {
         return (root, query, cb) -> {
             if (searchText == null || searchText.trim().isEmpty()) {
                 return cb.conjunction();
             }
-            String likePattern = "%" + searchText.toLowerCase() + "%";
-            return cb.or(
-                cb.like(cb.lower(root.get("firstName")), likePattern),
-                cb.like(cb.lower(root.get("lastName")), likePattern),
-                cb.like(cb.lower(root.get("email")), likePattern),
-                cb.like(cb.lower(root.join("department").get("departmentName")), likePattern)
-            );
+            String likePattern = "%" + LikePatterns.escape(searchText.toLowerCase(Locale.ROOT)) + "%";
+            return Joins.inner(root, "department", cb, department -> cb.or(
+                cb.like(cb.lower(root.get("firstName")), likePattern, LikePatterns.ESCAPE),
+                cb.like(cb.lower(root.get("lastName")), likePattern, LikePatterns.ESCAPE),
+                cb.like(cb.lower(root.get("email")), likePattern, LikePatterns.ESCAPE),
+                cb.like(cb.lower(department.get("departmentName")), likePattern, LikePatterns.ESCAPE)
+            ));
         };
     }
-    
-    
+
+
+    /** Index-friendly variant of searchByText: the words are prefixes of firstName, lastName, email or the
+        department name, compared on the raw columns without a leading wildcard, e.g.
+        	first_name like 'pri%' escape '\' or last_name like 'pri%' escape '\' or ...
+        so each branch can seek an index on its column (MySQL combines them with an index merge union).
+        Case-insensitive under the default _ci collations; a case-sensitive collation makes it case-sensitive.
+     */
+    public static Specification<Employee> searchByPrefix(String searchText) {
+        return (root, query, cb) -> {
+            if (searchText == null || searchText.trim().isEmpty()) {
+                return cb.conjunction();
+            }
+            String pattern = LikePatterns.prefix(searchText.trim());
+            return Joins.inner(root, "department", cb, department -> cb.or(
+                cb.like(root.get("firstName"), pattern, LikePatterns.ESCAPE),
+                cb.like(root.get("lastName"), pattern, LikePatterns.ESCAPE),
+                cb.like(root.get("email"), pattern, LikePatterns.ESCAPE),
+                cb.like(department.get("departmentName"), pattern, LikePatterns.ESCAPE)
+            ));
+        };
+    }
+
+
+    /** Restricts to the given ids, e.g. the matches the in-memory text index resolved for a search. */
+    public static Specification<Employee> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> ids.isEmpty() ? cb.disjunction() : root.get("id").in(ids);
+    }
+
+
+    /** Seek predicate for keyset pagination: rows strictly after the cursor for the cursor's sort
+        column and direction, with id as the tie-breaker. The query must be sorted by the same column
+        followed by id in the same direction. NULL keys follow MySQL ordering (first when ascending,
+        last when descending). The sort key is resolved like the offset Sort (see EmployeeSortKeys),
+        through the same left joins, so departmentId and dotted keys seek on what they are ordered by.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static Specification<Employee> seekAfter(KeysetCursor cursor) {
+        return (root, query, cb) -> {
+            if (cursor == null) {
+                return cb.conjunction();
+            }
+            Path<Long> id = root.get("id");
+            Predicate afterId = cursor.descending() ? cb.lessThan(id, cursor.id()) : cb.greaterThan(id, cursor.id());
+            if ("id".equals(cursor.sortBy())) {
+                return afterId;
+            }
+
+            PropertyPath sortKey = EmployeeSortKeys.propertyPath(cursor.sortBy());
+            if (sortKey == null) {
+                throw new IllegalArgumentException("Unknown sortBy: " + cursor.sortBy());
+            }
+            Expression<Comparable> key = QueryUtils.toExpressionRecursively(root, sortKey, false);
+            Comparable value = (Comparable) AttributeValues.convert(cursor.value(), key.getJavaType());
+            if (value == null) {
+                Predicate sameKey = cb.and(cb.isNull(key), afterId);
+                return cursor.descending() ? sameKey : cb.or(sameKey, cb.isNotNull(key));
+            }
+            Predicate beyondKey = cursor.descending() ? cb.lessThan(key, value) : cb.greaterThan(key, value);
+            Predicate sameKey = cb.and(cb.equal(key, value), afterId);
+            return cursor.descending()
+                    ? cb.or(beyondKey, sameKey, cb.isNull(key))
+                    : cb.or(beyondKey, sameKey);
+        };
+    }
+
+
     /** The below specification generates below query.
 		SELECT emp.id, emp.created_at, cb.id, cb.email, cb.password, cb.status, cb.username,
 		 dept.id, dept.budget, dept.created_at, dept.created_by, dept.department_name,
@@ -49,20 +127,15 @@ public class EmployeeSpecification {
 		  retrieve it in the same query as the root entity—eliminating the need for a separate SQL query.
      */
     public static Specification<Employee> empByDeptCreatedBy(String userName) {
-        return (root, query, cb) -> {
-            if (userName == null || userName.trim().isEmpty()) {
-                return cb.conjunction();
-            }
-
-            // Fetch and reuse
-            Fetch<?, ?> deptFetch = root.fetch("department", JoinType.INNER);
-            Join<?, ?> deptJoin = (Join<?, ?>) deptFetch;
-
-            Fetch<?, ?> userFetch = deptJoin.fetch("createdBy", JoinType.INNER);
-            Join<?, ?> userJoin = (Join<?, ?>) userFetch;
-
-            return cb.like(cb.lower(userJoin.get("username")), userName.toLowerCase());
-        };
+        if (userName == null || userName.trim().isEmpty()) {
+            return (root, query, cb) -> cb.conjunction();
+        }
+        // Fetch and reuse: the plan fetches first (entity queries only, not count or DTO queries),
+        // the predicate then joins through the same fetch joins
+        return DEPT_CREATED_BY.on((root, query, cb) -> {
+            return Joins.inner(root, "department", cb, deptJoin -> Joins.inner(deptJoin, "createdBy", cb,
+                    userJoin -> cb.like(cb.lower(userJoin.get("username")), userName.toLowerCase())));
+        });
     }
     
     
@@ -90,6 +163,7 @@ public class EmployeeSpecification {
                 return cb.conjunction();
             }
 
+            QueryMetrics.filters(Employee.class, filters);
             List<Predicate> predicates = new ArrayList<>();
 
             for (SearchFilter filter : filters) {
@@ -101,11 +175,12 @@ public class EmployeeSpecification {
                     case "notEqual" -> predicates.add(cb.notEqual(root.get(column), value));
                     case "like" -> predicates.add(cb.like(cb.lower(root.get(column).as(String.class)),
                     					"%" + value.toString().toLowerCase() + "%"));
+                    case "startsWith" -> predicates.add(cb.like(root.get(column), LikePatterns.prefix(value), LikePatterns.ESCAPE));
                     case "in" -> predicates.add(root.get(column).in(value.split(",")));
                     case "greaterThan" -> predicates.add(cb.greaterThan(root.get(column), value));
-                    case "lessThan" -> predicates.add(cb. lessThanOrEqualTo(root.get(column), value));
+                    case "lessThan" -> predicates.add(cb.lessThan(root.get(column), value));
                     case "greaterThanEqual" -> predicates.add(cb.greaterThanOrEqualTo(root.get(column), value));
-                    case "lessThanEqual" -> predicates.add(cb.lessThan(root.get(column), value));
+                    case "lessThanEqual" -> predicates.add(cb.lessThanOrEqualTo(root.get(column), value));
                     default -> throw new UnsupportedOperationException("Op not supported: " + filter.operation());
                 }
             }
@@ -121,6 +196,7 @@ public class EmployeeSpecification {
                 return cb.conjunction();
             }
 
+            QueryMetrics.filters(Employee.class, filters);
             List<Predicate> predicates = new ArrayList<>();
 
             for (SearchFilter filter : filters) {
@@ -146,11 +222,12 @@ public class EmployeeSpecification {
                     case "equal" -> predicates.add(cb.equal(path, value));
                     case "notEqual" -> predicates.add(cb.notEqual(path, value));
                     case "like" -> predicates.add(cb.like(cb.lower(path.as(String.class)), "%" + value.toString().toLowerCase() + "%"));
+                    case "startsWith" -> predicates.add(cb.like(path.as(String.class), LikePatterns.prefix(value.toString()), LikePatterns.ESCAPE));
                     case "in" -> predicates.add(path.in((Collection<?>) value));
-                    case "greaterThan" -> predicates.add(cb.greaterThan(path.as(Comparable.class), (Comparable) value));
-                    case "lessThan" -> predicates.add(cb. lessThanOrEqualTo(path.as(Comparable.class), (Comparable) value));
-                    case "greaterThanEqual" -> predicates.add(cb.greaterThanOrEqualTo(path.as(Comparable.class), (Comparable) value));
-                    case "lessThanEqual" -> predicates.add(cb.lessThan(path.as(Comparable.class), (Comparable) value));
+                    case "greaterThan" -> predicates.add(cb.greaterThan(comparable(path), (Comparable) value));
+                    case "lessThan" -> predicates.add(cb.lessThan(comparable(path), (Comparable) value));
+                    case "greaterThanEqual" -> predicates.add(cb.greaterThanOrEqualTo(comparable(path), (Comparable) value));
+                    case "lessThanEqual" -> predicates.add(cb.lessThanOrEqualTo(comparable(path), (Comparable) value));
                     default -> throw new UnsupportedOperationException("Op not supported: " + filter.operation());
                 }
             }
@@ -158,5 +235,10 @@ public class EmployeeSpecification {
         };
     }     
     
-}
 
+    /** Hibernate 6 refuses path.as(Comparable.class) (no such SQL type); the path only needs the static type. */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Expression<Comparable> comparable(Path<?> path) {
+        return (Expression<Comparable>) path;
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.FetchParent;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.PluralAttribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+
+/** Declares which associations of T a query loads, and how, independently of the predicate.
+ *  Paths are dotted attribute paths from T, e.g. "department.createdBy".
+ *   JOIN      fetch join in the same statement. Meant for to-one paths; a fetched collection multiplies
+ *             the rows and makes Hibernate paginate in memory.
+ *   BATCH     loaded after the query with IN (...) statements of batchSize keys each.
+ *   SUBSELECT collection paths only: loaded after the query for all results at once, with the original
+ *             query repeated as a subselect.
+ *  Plans are immutable, every builder method returns a new plan, so they can be kept in constants.
+ *
+ *  	FetchPlan.of(Employee.class).join("department").batch("projects").on(spec)
+ */
+public class FetchPlan<T> {
+
+	public enum Strategy { JOIN, BATCH, SUBSELECT }
+
+	public record Fetch(String path, Strategy strategy, JoinType joinType) {
+	}
+
+	private static final int DEFAULT_BATCH_SIZE = 100;
+
+	private final Class<T> type;
+	private final List<Fetch> fetches;
+	private final int batchSize;
+
+	private FetchPlan(Class<T> type, List<Fetch> fetches, int batchSize) {
+		this.type = type;
+		this.fetches = fetches;
+		this.batchSize = batchSize;
+	}
+
+	public static <T> FetchPlan<T> of(Class<T> type) {
+		return new FetchPlan<>(type, List.of(), DEFAULT_BATCH_SIZE);
+	}
+
+	public FetchPlan<T> join(String path) {
+		return join(path, JoinType.LEFT);
+	}
+
+	public FetchPlan<T> join(String path, JoinType joinType) {
+		return with(new Fetch(path, Strategy.JOIN, joinType));
+	}
+
+	public FetchPlan<T> batch(String path) {
+		return with(new Fetch(path, Strategy.BATCH, null));
+	}
+
+	public FetchPlan<T> subselect(String path) {
+		return with(new Fetch(path, Strategy.SUBSELECT, null));
+	}
+
+	public FetchPlan<T> batchSize(int batchSize) {
+		return new FetchPlan<>(type, fetches, batchSize);
+	}
+
+	public List<Fetch> fetches() {
+		return fetches;
+	}
+
+	/** spec with the JOIN paths of this plan fetched on the root before the predicate is built, so joins the
+	 *  predicate makes through Joins reuse them. The fetch joins are left out when the query does not select
+	 *  T itself (count queries, DTO projections), where a fetch join is illegal.
+	 */
+	public Specification<T> on(Specification<T> spec) {
+		return (root, query, cb) -> {
+			if (query.getResultType() == root.getJavaType()) {
+				for (Fetch fetch : fetches) {
+					if (fetch.strategy() == Strategy.JOIN) {
+						fetchJoin(root, fetch);
+					}
+				}
+			}
+			return Objects.isNull(spec) ? null : spec.toPredicate(root, query, cb);
+		};
+	}
+
+	/** The JOIN paths as JPQL fetch joins from the given alias, for hand-written queries. Queries that are
+	 *  streamed cannot load anything after the fact, so any BATCH or SUBSELECT path is rejected.
+	 */
+	public String joinFetchClause(String alias) {
+		StringBuilder clause = new StringBuilder();
+		Map<String, String> aliases = new LinkedHashMap<>();
+		for (Fetch fetch : fetches) {
+			if (fetch.strategy() != Strategy.JOIN) {
+				throw new IllegalArgumentException("Only join fetches can be rendered into a query: " + fetch.path());
+			}
+			String parentAlias = alias;
+			String path = "";
+			for (String attribute : fetch.path().split("\\.")) {
+				path = path.isEmpty() ? attribute : path + "." + attribute;
+				String joinAlias = aliases.get(path);
+				if (Objects.isNull(joinAlias)) {
+					joinAlias = alias + "_" + path.replace('.', '_');
+					aliases.put(path, joinAlias);
+					clause.append(fetch.joinType() == JoinType.INNER ? " join fetch " : " left join fetch ")
+							.append(parentAlias).append('.').append(attribute).append(' ').append(joinAlias);
+				}
+				parentAlias = joinAlias;
+			}
+		}
+		return clause.toString();
+	}
+
+	/** Criteria query for T restricted by spec, in the given order, with the whole plan applied. */
+	public List<T> findAll(EntityManager em, Specification<T> spec, Sort sort) {
+		return getResultList(em, em.createQuery(query(em, spec, sort)));
+	}
+
+	/** A page of T restricted by spec with the whole plan applied to the rows of the page. The count query
+	 *  goes through on() too, which leaves the fetch joins out of it but keeps the predicate's joins.
+	 */
+	public Page<T> findAll(EntityManager em, Specification<T> spec, Pageable pageable) {
+		TypedQuery<T> query = em.createQuery(query(em, spec, pageable.getSort()));
+		if (pageable.isPaged()) {
+			query.setFirstResult((int) pageable.getOffset());
+			query.setMaxResults(pageable.getPageSize());
+		}
+		return PageableExecutionUtils.getPage(getResultList(em, query), pageable, () -> count(em, spec));
+	}
+
+	private CriteriaQuery<T> query(EntityManager em, Specification<T> spec, Sort sort) {
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<T> query = cb.createQuery(type);
+		Root<T> root = query.from(type);
+		Predicate predicate = on(spec).toPredicate(root, query, cb);
+		if (predicate != null) {
+			query.where(predicate);
+		}
+		if (sort.isSorted()) {
+			query.orderBy(QueryUtils.toOrders(sort, root, cb));
+		}
+		return query;
+	}
+
+	private long count(EntityManager em, Specification<T> spec) {
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<Long> query = cb.createQuery(Long.class);
+		Root<T> root = query.from(type);
+		Predicate predicate = on(spec).toPredicate(root, query, cb);
+		if (predicate != null) {
+			query.where(predicate);
+		}
+		query.select(query.isDistinct() ? cb.countDistinct(root) : cb.count(root));
+		return em.createQuery(query).getSingleResult();
+	}
+
+	/** Runs a query for T that already carries this plan's fetch joins, then loads the BATCH and SUBSELECT
+	 *  paths for the results. Batch and subselect loading are switched on for the session only for the
+	 *  duration of the call, they have to be active both when the query runs and when the paths are loaded.
+	 */
+	public List<T> getResultList(EntityManager em, TypedQuery<T> query) {
+		List<Fetch> deferred = fetches.stream().filter(fetch -> fetch.strategy() != Strategy.JOIN).toList();
+		if (deferred.isEmpty()) {
+			return query.getResultList();
+		}
+		deferred.stream().filter(fetch -> fetch.strategy() == Strategy.SUBSELECT)
+				.forEach(fetch -> requireCollection(em, fetch.path()));
+
+		Session session = em.unwrap(Session.class);
+		int previousBatchSize = session.getFetchBatchSize();
+		boolean previousSubselect = session.isSubselectFetchingEnabled();
+		try {
+			session.setFetchBatchSize(batchSize);
+			session.setSubselectFetchingEnabled(deferred.stream().anyMatch(fetch -> fetch.strategy() == Strategy.SUBSELECT));
+			List<T> results = query.getResultList();
+			deferred.forEach(fetch -> initialize(results, fetch.path()));
+			return results;
+		} finally {
+			session.setFetchBatchSize(previousBatchSize);
+			session.setSubselectFetchingEnabled(previousSubselect);
+		}
+	}
+
+	private FetchPlan<T> with(Fetch fetch) {
+		List<Fetch> next = new ArrayList<>(fetches);
+		next.add(fetch);
+		return new FetchPlan<>(type, List.copyOf(next), batchSize);
+	}
+
+	private static void fetchJoin(FetchParent<?, ?> root, Fetch fetch) {
+		FetchParent<?, ?> parent = root;
+		for (String attribute : fetch.path().split("\\.")) {
+			parent = (FetchParent<?, ?>) Joins.fetch(parent, attribute, fetch.joinType());
+		}
+	}
+
+	/** Walks the path over the results, initializing every proxy and collection on the way. The first
+	 *  initialization of a level loads the pending ones of the same kind in batches (or by subselect).
+	 */
+	private static void initialize(List<?> results, String path) {
+		Collection<Object> owners = new ArrayList<>(results);
+		for (String attribute : path.split("\\.")) {
+			Set<Object> next = Collections.newSetFromMap(new IdentityHashMap<>());
+			for (Object owner : owners) {
+				Hibernate.initialize(owner);
+				Object value = PropertyAccessorFactory.forBeanPropertyAccess(Hibernate.unproxy(owner))
+						.getPropertyValue(attribute);
+				if (value instanceof Collection<?> collection) {
+					Hibernate.initialize(collection);
+					next.addAll(collection);
+				} else if (Objects.nonNull(value)) {
+					next.add(value);
+				}
+			}
+			owners = next;
+		}
+		owners.forEach(Hibernate::initialize);
+	}
+
+	private void requireCollection(EntityManager em, String path) {
+		ManagedType<?> managedType = em.getMetamodel().managedType(type);
+		Attribute<?, ?> attribute = null;
+		for (String name : path.split("\\.")) {
+			if (Objects.nonNull(attribute)) {
+				managedType = attribute instanceof PluralAttribute<?, ?, ?> plural
+						? (ManagedType<?>) plural.getElementType()
+						: (ManagedType<?>) ((SingularAttribute<?, ?>) attribute).getType();
+			}
+			attribute = managedType.getAttribute(name);
+		}
+		if (!(attribute instanceof PluralAttribute<?, ?, ?>)) {
+			throw new IllegalArgumentException("Subselect fetching needs a collection path: " + path);
+		}
+	}
+}
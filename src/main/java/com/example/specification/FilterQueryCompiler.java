@@ -0,0 +1,224 @@
+package com.example.specification;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.dto.SearchFilter;
+import com.example.entity.Employee;
+import com.example.metrics.QueryMetrics;
+import com.example.search.BitmapIndexes;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.Metamodel;
+import jakarta.persistence.metamodel.PluralAttribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+
+/** Compiles SearchFilter lists into parameterized JPQL where clauses, cached per FilterShape.
+ *  Unlike the criteria built by EmployeeSpecification.byFilters or GenericSpecification, every request
+ *  with the same shape produces the same query text, so Hibernate's query plan cache and the driver's
+ *  prepared statement cache are reused and only the values are bound per call.
+ *  Column names are checked against the JPA metamodel, they never reach the query unvalidated.
+ *  equal/in/notEqual filters on a column with a bitmap index (see BitmapIndexes) compile to a test of
+ *  the owning entity's id against the set of ids the index resolves, e.g. e.department.id in :f0 for
+ *  department.location, which reads the foreign key instead of joining the departments table.
+ *  A path through a collection, such as an employee's assignments.role, matches the rows with at least
+ *  one element that passes the filter: e.id in (select ... join ...assignments ...), or e.id in :f0
+ *  with the employees BitmapIndexes resolves.
+ */
+@Component
+public class FilterQueryCompiler {
+
+	// Employee collection whose role and status BitmapIndexes resolves to employee ids
+	private static final String ASSIGNMENTS = "assignments";
+
+	private final Metamodel metamodel;
+	private final BitmapIndexes bitmaps;
+	private final Cache<FilterShape, CompiledFilter> compiled;
+	private final Counter hits;
+	private final Counter misses;
+
+	public FilterQueryCompiler(EntityManagerFactory emf, MeterRegistry registry, BitmapIndexes bitmaps,
+			@Value("${app.filter.shape-cache.max-size:1000}") long maxSize) {
+		this.metamodel = emf.getMetamodel();
+		this.bitmaps = bitmaps;
+		this.compiled = Caffeine.newBuilder().maximumSize(maxSize).build();
+		this.hits = Counter.builder("app.filter.shape.cache").tag("result", "hit")
+				.description("Lookups of compiled SearchFilter shapes").register(registry);
+		this.misses = Counter.builder("app.filter.shape.cache").tag("result", "miss")
+				.description("Lookups of compiled SearchFilter shapes").register(registry);
+	}
+
+	/** @param alias the identification variable of entityType in the query the clause is appended to */
+	public CompiledFilter compile(Class<?> entityType, String alias, List<SearchFilter> filters) {
+		QueryMetrics.filters(entityType, filters);
+		FilterShape shape = shapeOf(entityType, alias, filters);
+		CompiledFilter filter = compiled.getIfPresent(shape);
+		if (Objects.nonNull(filter)) {
+			hits.increment();
+			return filter;
+		}
+		misses.increment();
+		return compiled.get(shape, this::compile);
+	}
+
+	/** The shape of filters; whether a term is an id set depends on the bitmap indexes at the time and on
+	 *  how many rows its value matches, so a value matching more than max-ids rows, or any value before an
+	 *  index is ready, gets the shape compiled to the column test.
+	 */
+	public FilterShape shapeOf(Class<?> entityType, String alias, List<SearchFilter> filters) {
+		List<FilterShape.Term> terms = new ArrayList<>();
+		if (Objects.nonNull(filters)) {
+			for (SearchFilter filter : filters) {
+				boolean idSet = indexed(entityType, filter);
+				terms.add(new FilterShape.Term(filter.columnName(), filter.operation(), idSet));
+			}
+		}
+		return new FilterShape(entityType, alias, List.copyOf(terms));
+	}
+
+	private CompiledFilter compile(FilterShape shape) {
+		List<String> conditions = new ArrayList<>();
+		List<String> operations = new ArrayList<>();
+		List<Class<?>> types = new ArrayList<>();
+		List<Function<String, List<Long>>> idSets = new ArrayList<>();
+
+		for (int i = 0; i < shape.terms().size(); i++) {
+			FilterShape.Term term = shape.terms().get(i);
+			Class<?> type = attributeType(shape.entityType(), term.column());
+			String collection = collection(shape.entityType(), term.column());
+			String path = Objects.isNull(collection) ? shape.alias() + "." + term.column()
+					: "j" + i + term.column().substring(collection.length());
+			String parameter = ":" + CompiledFilter.parameterName(i);
+			operations.add(term.operation());
+			types.add(type);
+
+			if (term.idSet() && Objects.nonNull(collection)) {
+				String attribute = term.column().substring(collection.length() + 1);
+				conditions.add(shape.alias() + ".id in " + parameter);
+				idSets.add(value -> bitmaps.employeesWithAssignment(attribute, term.operation(), value));
+				continue;
+			}
+			if (term.idSet()) {
+				int dot = term.column().lastIndexOf('.');
+				String owner = dot < 0 ? shape.alias() : shape.alias() + "." + term.column().substring(0, dot);
+				Class<?> ownerType = ownerType(shape.entityType(), term.column());
+				String attribute = term.column().substring(dot + 1);
+				conditions.add(owner + ".id in " + parameter);
+				idSets.add(value -> bitmaps.ids(ownerType, attribute, term.operation(), value));
+				continue;
+			}
+			idSets.add(null);
+			String condition = switch (term.operation()) {
+				case "equal" -> path + " = " + parameter;
+				case "notEqual" -> path + " <> " + parameter;
+				case "like" -> (type == String.class ? "lower(" + path + ")" : "lower(cast(" + path + " as String))")
+						+ " like " + parameter;
+				// Raw column and no leading wildcard, so an index on the column can be used
+				case "startsWith" -> path + " like " + parameter + " escape '" + LikePatterns.ESCAPE + "'";
+				case "in" -> path + " in " + parameter;
+				case "greaterThan" -> path + " > " + parameter;
+				case "lessThan" -> path + " < " + parameter;
+				case "greaterThanEqual" -> path + " >= " + parameter;
+				case "lessThanEqual" -> path + " <= " + parameter;
+				default -> throw new UnsupportedOperationException("Op not supported: " + term.operation());
+			};
+			if (Objects.nonNull(collection)) {
+				// One join per filter, so that several filters on a collection may match different elements
+				String owner = "o" + i;
+				condition = shape.alias() + ".id in (select " + owner + ".id from "
+						+ metamodel.entity(shape.entityType()).getName() + " " + owner + " join " + owner + "."
+						+ collection + " j" + i + " where " + condition + ")";
+			}
+			conditions.add(condition);
+		}
+		String where = conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions);
+		return new CompiledFilter(where, List.copyOf(operations), List.copyOf(types),
+				Collections.unmodifiableList(idSets));
+	}
+
+	private boolean indexed(Class<?> entityType, SearchFilter filter) {
+		String column = filter.columnName();
+		String operation = filter.operation();
+		if (Objects.isNull(column) || !BitmapIndexes.OPERATIONS.contains(operation)) return false;
+		String collection = collection(entityType, column);
+		if (Objects.nonNull(collection)) {
+			return entityType == Employee.class && ASSIGNMENTS.equals(collection)
+					&& bitmaps.answersAssignment(column.substring(collection.length() + 1), operation, filter.value());
+		}
+		Class<?> owner = ownerType(entityType, column);
+		return Objects.nonNull(owner)
+				&& bitmaps.answers(owner, column.substring(column.lastIndexOf('.') + 1), operation, filter.value());
+	}
+
+	/** Entity holding the last attribute of a dotted path, null if the path is not made of singular
+	 *  associations (attributeType rejects it when compiling).
+	 */
+	private Class<?> ownerType(Class<?> entityType, String column) {
+		ManagedType<?> type = metamodel.managedType(entityType);
+		String[] parts = column.split("\\.");
+		try {
+			for (int i = 0; i < parts.length - 1; i++) {
+				if (!(type.getAttribute(parts[i]) instanceof SingularAttribute<?, ?> singular)
+						|| !(singular.getType() instanceof ManagedType<?> target)) {
+					return null;
+				}
+				type = target;
+			}
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+		return type.getJavaType();
+	}
+
+	/** The first part of a dotted path when it is a collection of entities or embeddables, else null. */
+	private String collection(Class<?> entityType, String column) {
+		int dot = column.indexOf('.');
+		if (dot < 0) return null;
+		String first = column.substring(0, dot);
+		try {
+			Attribute<?, ?> attribute = metamodel.managedType(entityType).getAttribute(first);
+			return attribute instanceof PluralAttribute<?, ?, ?> plural
+					&& plural.getElementType() instanceof ManagedType<?> ? first : null;
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/** Java type of a (possibly dotted) attribute path; rejects anything that is not a mapped attribute.
+	 *  Only the first part of the path may be a collection.
+	 */
+	private Class<?> attributeType(Class<?> entityType, String column) {
+		ManagedType<?> type = metamodel.managedType(entityType);
+		String[] parts = column.split("\\.");
+		for (int i = 0; i < parts.length - 1; i++) {
+			Attribute<?, ?> attribute = type.getAttribute(parts[i]);
+			if (i == 0 && attribute instanceof PluralAttribute<?, ?, ?> plural
+					&& plural.getElementType() instanceof ManagedType<?> element) {
+				type = element;
+				continue;
+			}
+			if (!(attribute instanceof SingularAttribute<?, ?> singular)
+					|| !(singular.getType() instanceof ManagedType<?> target)) {
+				throw new IllegalArgumentException("Not a filterable path: " + column);
+			}
+			type = target;
+		}
+		Attribute<?, ?> attribute = type.getAttribute(parts[parts.length - 1]);
+		if (attribute.isAssociation() || attribute.isCollection()) {
+			throw new IllegalArgumentException("Not a filterable column: " + column);
+		}
+		return attribute.getJavaType();
+	}
+}
@@ -0,0 +1,19 @@
+package com.example.specification;
+
+import java.util.List;
+
+/** The part of a SearchFilter list that determines the query text: which columns are filtered with
+ *  which operations, and which filters a bitmap index resolves to an id set. The values of an 'in'
+ *  are bound as one list parameter, so their number is not part of the shape (Hibernate pads the
+ *  expanded list, see in_clause_parameter_padding). Two requests with the same shape share one
+ *  compiled, parameterized query and differ only in the bound values.
+ */
+public record FilterShape(Class<?> entityType,
+						  String alias,
+						  List<Term> terms) {
+
+	public record Term(String column,
+					   String operation,
+					   boolean idSet) {
+	}
+}
@@ -7,9 +7,11 @@ import java.util.List;
 import org.springframework.data.jpa.domain.Specification;
 
 import com.example.dto.SearchFilter;
+import com.example.metrics.QueryMetrics;
 
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
@@ -24,6 +26,7 @@ public class GenericSpecification<T> implements Specification<T> {
 
     @Override
     public Predicate toPredicate(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+        QueryMetrics.filters(root.getJavaType(), filters);
         List<Predicate> predicates = new ArrayList<>();
 
         for (SearchFilter filter : filters) {
@@ -34,15 +37,21 @@ public class GenericSpecification<T> implements Specification<T> {
                 case "equal" -> predicates.add(cb.equal(path, value));
                 case "notEqual" -> predicates.add(cb.notEqual(path, value));
                 case "like" -> predicates.add(cb.like(cb.lower(path.as(String.class)), "%" + value.toString().toLowerCase() + "%"));
-                case "greaterThan" -> predicates.add(cb.greaterThan(path.as(Comparable.class), (Comparable) value));
-                case "lessThan" -> predicates.add(cb.lessThan(path.as(Comparable.class), (Comparable) value));
-                case "greaterThanEqual" -> predicates.add(cb.greaterThanOrEqualTo(path.as(Comparable.class), (Comparable) value));
-                case "lessThanEqual" -> predicates.add(cb.lessThanOrEqualTo(path.as(Comparable.class), (Comparable) value));
+                case "startsWith" -> predicates.add(cb.like(path.as(String.class), LikePatterns.prefix(value.toString()), LikePatterns.ESCAPE));
+                case "greaterThan" -> predicates.add(cb.greaterThan(comparable(path), (Comparable) value));
+                case "lessThan" -> predicates.add(cb.lessThan(comparable(path), (Comparable) value));
+                case "greaterThanEqual" -> predicates.add(cb.greaterThanOrEqualTo(comparable(path), (Comparable) value));
+                case "lessThanEqual" -> predicates.add(cb.lessThanOrEqualTo(comparable(path), (Comparable) value));
                 case "in" -> predicates.add(path.in((Collection<?>) value));
             }
         }
 
         return cb.and(predicates.toArray(new Predicate[0]));
     }
-}
 
+    /** Hibernate 6 refuses path.as(Comparable.class) (no such SQL type); the path only needs the static type. */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Expression<Comparable> comparable(Path<?> path) {
+        return (Expression<Comparable>) path;
+    }
+}
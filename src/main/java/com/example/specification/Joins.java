@@ -0,0 +1,71 @@
+package com.example.specification;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.FetchParent;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+
+/** Join lookups that reuse an existing join or fetch join of the same attribute and join type instead of
+ *  adding another one, so that a FetchPlan and the predicates of a specification end up sharing a single
+ *  SQL join. Fetch joins made by FetchPlan.on() are in place before the predicate runs, so specifications
+ *  should create their joins through join() to pick them up.
+ */
+public class Joins {
+
+	public static <X, Y> Join<X, Y> join(From<?, X> from, String attribute, JoinType type) {
+		Join<X, Y> join = find(from, attribute, type);
+		return Objects.nonNull(join) ? join : from.join(attribute, type);
+	}
+
+	/** The predicate over an INNER join of attribute. Without one, an existing LEFT join or fetch join of it
+	 *  (a DTO projection or FetchPlan selecting through it) is reused instead of joining the table twice,
+	 *  and the rows it matched nothing for are left out by an is not null condition, as the inner join would.
+	 */
+	public static <X, Y> Predicate inner(From<?, X> from, String attribute, CriteriaBuilder cb,
+			Function<Join<X, Y>, Predicate> predicate) {
+		Join<X, Y> join = find(from, attribute, JoinType.INNER);
+		if (Objects.nonNull(join)) {
+			return predicate.apply(join);
+		}
+		Join<X, Y> left = find(from, attribute, JoinType.LEFT);
+		if (Objects.nonNull(left)) {
+			return cb.and(cb.isNotNull(left), predicate.apply(left));
+		}
+		return predicate.apply(from.join(attribute, JoinType.INNER));
+	}
+
+	@SuppressWarnings("unchecked")
+	public static <X, Y> Fetch<X, Y> fetch(FetchParent<?, X> parent, String attribute, JoinType type) {
+		for (Fetch<X, ?> fetch : parent.getFetches()) {
+			if (matches(fetch.getAttribute().getName(), fetch.getJoinType(), attribute, type)) {
+				return (Fetch<X, Y>) fetch;
+			}
+		}
+		return parent.fetch(attribute, type);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <X, Y> Join<X, Y> find(From<?, X> from, String attribute, JoinType type) {
+		for (Fetch<X, ?> fetch : from.getFetches()) {
+			if (fetch instanceof Join<?, ?> join && matches(fetch.getAttribute().getName(), fetch.getJoinType(), attribute, type)) {
+				return (Join<X, Y>) join;
+			}
+		}
+		for (Join<X, ?> join : from.getJoins()) {
+			if (matches(join.getAttribute().getName(), join.getJoinType(), attribute, type)) {
+				return (Join<X, Y>) join;
+			}
+		}
+		return null;
+	}
+
+	private static boolean matches(String name, JoinType joinType, String attribute, JoinType type) {
+		return name.equals(attribute) && joinType == type;
+	}
+}
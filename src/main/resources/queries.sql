@@ -58,6 +58,25 @@ CREATE TABLE employee_projects (
   CONSTRAINT fk_empproj_proj FOREIGN KEY (project_id) REFERENCES projects(id)
 );
 
+-- Precomputed per-department numbers for /api/departments/stats, maintained by the application
+-- when app.stats.rollup.enabled is set (average = salary_sum / salary_count, the employees with a salary)
+CREATE TABLE department_salary_rollup (
+  department_id BIGINT PRIMARY KEY,
+  headcount BIGINT NOT NULL,
+  salary_count BIGINT NOT NULL,
+  salary_sum DECIMAL(16,2),
+  salary_min DECIMAL(10,2),
+  salary_max DECIMAL(10,2)
+);
+
+-- Indexes for app.search.mode=prefix: prefix LIKE on the raw columns, and location equality followed by
+-- the budget range for /api/departments (equality column first, range column last).
+-- email already has the index of its UNIQUE constraint, users.username the one of its own.
+CREATE INDEX idx_employees_first_name ON employees (first_name);
+CREATE INDEX idx_employees_last_name ON employees (last_name);
+CREATE INDEX idx_departments_name ON departments (department_name);
+CREATE INDEX idx_departments_location_budget ON departments (location, budget);
+
 
 INSERT INTO users (username, email, password, status) VALUES
 ('raj_k', 'raj.kumar@example.com', 'hashed_pw1', 'ACTIVE'),
@@ -0,0 +1,139 @@
+package com.example.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.assertj.core.api.recursive.comparison.RecursiveComparisonConfiguration;
+import org.junit.jupiter.api.Test;
+
+import com.example.dto.DepartmentDto;
+import com.example.dto.EmployeeDto;
+import com.example.dto.EmployeeResponse;
+import com.example.dto.PageMetadata;
+
+/** RowsEncoder output read back by RowsDecoder. Salaries come back at their column's scale, so BigDecimals
+ *  are compared by value.
+ */
+class RowsCodecTest {
+
+	private static final RecursiveComparisonConfiguration DECIMALS_BY_VALUE = RecursiveComparisonConfiguration.builder()
+			.withComparatorForType(Comparator.<BigDecimal>naturalOrder(), BigDecimal.class).build();
+
+	private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 3, 9, 14, 5, 7, 123_456_789);
+
+	@Test
+	void employeesRoundTrip() throws IOException {
+		List<EmployeeDto> employees = List.of(
+				employee(1L, "Pune", new BigDecimal("50000")).build(),
+				employee(2L, "Pune", new BigDecimal("61000.5")).build(),
+				employee(3L, "Mumbai", new BigDecimal("72000.125")).build(),
+				// Every column null, the last three past the first byte of the null bitmap
+				EmployeeDto.builder().build(),
+				employee(-4L, null, new BigDecimal("-0.01")).createdById(null).createdBy(null).createdAt(null).build());
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		RowsEncoder.writeEmployees(employees, out);
+		List<EmployeeDto> read = RowsDecoder.readEmployees(new ByteArrayInputStream(out.toByteArray()));
+
+		assertThat(read).usingRecursiveFieldByFieldElementComparator(DECIMALS_BY_VALUE)
+				.containsExactlyElementsOf(employees);
+		assertThat(read.get(1).salary()).isEqualTo("61000.500");
+	}
+
+	@Test
+	void departmentsRoundTrip() throws IOException {
+		List<DepartmentDto> departments = List.of(
+				new DepartmentDto(1L, "Engineering", "Pune", "Asha", new BigDecimal("1500000.00"), "raj", CREATED_AT),
+				new DepartmentDto(2L, "Sales", "Pune", null, new BigDecimal("1E+6"), "raj", CREATED_AT.plusDays(1)),
+				new DepartmentDto(3L, null, null, null, null, null, null));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		RowsEncoder.writeDepartments(departments, out);
+		List<DepartmentDto> read = RowsDecoder.readDepartments(new ByteArrayInputStream(out.toByteArray()));
+
+		assertThat(read).usingRecursiveFieldByFieldElementComparator(DECIMALS_BY_VALUE)
+				.containsExactlyElementsOf(departments);
+	}
+
+	@Test
+	void stringsLongerThanTheBufferRoundTrip() throws IOException {
+		String longName = "Ω".repeat(5000) + "x".repeat(9000);
+		List<EmployeeDto> employees = new ArrayList<>();
+		for (long id = 1; id <= 3; id++) {
+			employees.add(employee(id, longName, new BigDecimal("50000")).firstName(longName + id).build());
+		}
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		RowsEncoder.writeEmployees(employees, out);
+		List<EmployeeDto> read = RowsDecoder.readEmployees(new ByteArrayInputStream(out.toByteArray()));
+
+		assertThat(out.size()).isGreaterThan(3 * 8192);
+		assertThat(read).extracting(EmployeeDto::firstName).containsExactly(longName + 1, longName + 2, longName + 3);
+		assertThat(read).extracting(EmployeeDto::departmentName).containsOnly(longName);
+	}
+
+	@Test
+	void offsetPageRoundTrips() throws IOException {
+		EmployeeResponse page = new EmployeeResponse(
+				List.of(employee(1L, "Pune", new BigDecimal("50000")).build(), employee(2L, "Pune", null).build()),
+				PageMetadata.builder().pageNumber(3).pageSize(2).totalPages(9).noOfElements(2).totalElements(17L)
+						.totalCached(true).build());
+
+		assertThat(roundTrip(page)).usingRecursiveComparison(DECIMALS_BY_VALUE).isEqualTo(page);
+	}
+
+	@Test
+	void keysetPageWithoutPageNumberRoundTrips() throws IOException {
+		EmployeeResponse page = new EmployeeResponse(List.of(employee(1L, "Pune", new BigDecimal("50000")).build()),
+				PageMetadata.builder().pageSize(20).noOfElements(1).nextCursor("eyJpZCI6MX0").build());
+
+		EmployeeResponse read = roundTrip(page);
+
+		assertThat(read.pageMetadata()).isEqualTo(page.pageMetadata());
+		assertThat(read.pageMetadata().pageNumber()).isNull();
+		assertThat(read.pageMetadata().totalElements()).isNull();
+	}
+
+	@Test
+	void emptyPageRoundTrips() throws IOException {
+		EmployeeResponse page = new EmployeeResponse(List.of(),
+				PageMetadata.builder().pageNumber(0).pageSize(20).totalPages(0).totalElements(0L).build());
+
+		assertThat(roundTrip(page)).isEqualTo(page);
+	}
+
+	@Test
+	void decimalThatDoesNotFitALongIsRejectedBeforeWriting() {
+		// Each fits on its own, but at the common scale 4 the first one needs more than 63 bits
+		List<EmployeeDto> employees = List.of(
+				employee(1L, "Pune", new BigDecimal("1000000000000000")).build(),
+				employee(2L, "Pune", new BigDecimal("0.0001")).build());
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		assertThatIllegalArgumentException().isThrownBy(() -> RowsEncoder.writeEmployees(employees, out))
+				.withMessageContaining("salary 1000000000000000");
+		assertThat(out.size()).isZero();
+	}
+
+	private static EmployeeResponse roundTrip(EmployeeResponse page) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		RowsEncoder.writeEmployeePage(page, out);
+		return RowsDecoder.readEmployeePage(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+	private static EmployeeDto.EmployeeDtoBuilder employee(long id, String departmentName, BigDecimal salary) {
+		return EmployeeDto.builder().id(id).firstName("Emp" + id).lastName("Sharma").email("emp" + id + "@example.com")
+				.hireDate(LocalDate.of(2020, 1, 1).plusDays(id)).salary(salary).departmentId(10L)
+				.departmentName(departmentName).createdById(1L).createdBy("raj").createdAt(CREATED_AT.plusSeconds(id));
+	}
+}
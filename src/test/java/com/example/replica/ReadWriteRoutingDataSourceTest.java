@@ -0,0 +1,94 @@
+package com.example.replica;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.example.entity.User;
+
+import jakarta.persistence.EntityManager;
+
+/** Routing between two embedded databases, told apart by their names: the primary is spring.datasource,
+ *  the replica the only app.replicas target.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.NONE, properties = {
+		"spring.datasource.url=jdbc:h2:mem:routing_primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"app.replicas.enabled=true",
+		"app.replicas.targets[0].url=jdbc:h2:mem:routing_replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"app.replicas.targets[0].username=sa",
+		"app.replicas.targets[0].password=" })
+@ActiveProfiles("test")
+class ReadWriteRoutingDataSourceTest {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private EntityManager em;
+
+	@AfterEach
+	void clearRequest() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	void readOnlyCallsReadFromTheReplica() {
+		inSession("reader");
+
+		assertThat(ReadOnlyContext.call(this::database)).isEqualToIgnoringCase("routing_replica");
+		String inReadOnlyTransaction = transaction(true).execute(status -> database());
+		assertThat(inReadOnlyTransaction).isEqualToIgnoringCase("routing_replica");
+	}
+
+	@Test
+	void writesGoToThePrimary() {
+		assertThat(database()).isEqualToIgnoringCase("routing_primary");
+		String inTransaction = transaction(false).execute(status -> database());
+		assertThat(inTransaction).isEqualToIgnoringCase("routing_primary");
+	}
+
+	@Test
+	void sessionWithARecentWriteReadsFromThePrimary() {
+		inSession("writer");
+		transaction(false).executeWithoutResult(status -> em.persist(User.builder().username("writer").build()));
+
+		assertThat(ReadOnlyContext.call(this::database)).isEqualToIgnoringCase("routing_primary");
+		assertThat(ReadOnlyContext.call(() -> jdbcTemplate.queryForObject(
+				"select count(*) from users where username = 'writer'", Integer.class))).isEqualTo(1);
+
+		// Other sessions still read from the replica
+		inSession("reader");
+		assertThat(ReadOnlyContext.call(this::database)).isEqualToIgnoringCase("routing_replica");
+	}
+
+	/** Name of the database the connection was routed to. */
+	private String database() {
+		return jdbcTemplate.queryForObject("select database()", String.class);
+	}
+
+	private static void inSession(String session) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("X-Session-Id", session);
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+	}
+
+	private TransactionTemplate transaction(boolean readOnly) {
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setReadOnly(readOnly);
+		return template;
+	}
+}
@@ -0,0 +1,98 @@
+package com.example.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.entity.Department;
+import com.example.entity.Employee;
+import com.example.entity.User;
+import com.example.repository.EmployeeRepository;
+import com.example.specification.EmployeeSpecification;
+
+import jakarta.persistence.EntityManager;
+
+/** The trigram index must find exactly the employees the LIKE search of EmployeeSpecification.searchByText
+ *  finds, including for text with LIKE wildcards in it and text in another case.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.NONE, properties = "app.search.trigram.enabled=true")
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EmployeeTextIndexTest {
+
+	@Autowired
+	private EmployeeTextIndex textIndex;
+
+	@Autowired
+	private EmployeeRepository empRepo;
+
+	@Autowired
+	private EntityManager em;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	// Employee ids by first name, lower-cased
+	private final Map<String, Long> ids = new HashMap<>();
+
+	@BeforeAll
+	void seed() {
+		// The index picks the rows up from the committed changes, it was built on an empty database
+		transactionTemplate.executeWithoutResult(status -> {
+			User user = User.builder().username("raj").email("raj@example.com").status("ACTIVE").build();
+			em.persist(user);
+			Department sales = Department.builder().departmentName("Sales").location("Pune").createdBy(user).build();
+			Department lab = Department.builder().departmentName("R&D_Lab").location("Delhi").createdBy(user).build();
+			em.persist(sales);
+			em.persist(lab);
+			persist("priya", "Priya", "Sharma", "priya.sharma@example.com", sales);
+			persist("rahul", "Rahul", "Mehta", "rahul_mehta@example.com", lab);
+			persist("anita", "Anita", "Rao", "anita%rao@example.com", sales);
+			persist("neha", "Neha", "Labh", "neha@example.com", lab);
+			persist("vikram", "Vikram", "Singh", "vikram@example.com", null);
+		});
+	}
+
+	private void persist(String key, String firstName, String lastName, String email, Department department) {
+		Employee employee = Employee.builder().firstName(firstName).lastName(lastName).email(email)
+				.department(department).build();
+		em.persist(employee);
+		em.flush();
+		ids.put(key, employee.getId());
+	}
+
+	@ParameterizedTest
+	@CsvSource(delimiter = '|', value = {
+			"priya  | priya",
+			"SHARMA | priya",
+			"sales  | priya anita",
+			"lab    | rahul neha",
+			"a%r    | anita",
+			"l_m    | rahul",
+			"r&d_l  | rahul neha",
+			"vikram | ''",
+			"zzz    | ''" })
+	void indexFindsWhatLikeFinds(String searchText, String expected) {
+		Set<Long> expectedIds = expected.isBlank() ? Set.of()
+				: Arrays.stream(expected.split(" ")).map(ids::get).collect(Collectors.toSet());
+		Set<Long> likeIds = empRepo.findAll(EmployeeSpecification.searchByText(searchText)).stream()
+				.map(Employee::getId).collect(Collectors.toSet());
+
+		assertThat(textIndex.search(searchText)).hasValue(likeIds);
+		assertThat(likeIds).isEqualTo(expectedIds);
+	}
+}
@@ -0,0 +1,179 @@
+package com.example.shard;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.dto.EmployeeDto;
+import com.example.dto.FieldSet;
+import com.example.dto.SearchFilter;
+import com.example.entity.Employee;
+import com.example.specification.EmployeeSpecification;
+
+/** Scatter-gather over two embedded databases. Departments 2 and 4 live on shard 0, 1 and 3 on shard 1;
+ *  shard 0 holds three employees and shard 1 eight, so deeper pages lie past the end of shard 0.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.NONE, properties = {
+		"app.sharding.enabled=true",
+		"app.sharding.shards[0].url=jdbc:h2:mem:sharded_queries_0;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"app.sharding.shards[0].username=sa",
+		"app.sharding.shards[0].password=",
+		"app.sharding.shards[1].url=jdbc:h2:mem:sharded_queries_1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"app.sharding.shards[1].username=sa",
+		"app.sharding.shards[1].password=" })
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ShardedEmployeeQueriesTest {
+
+	private static final Specification<Employee> EVERYONE = EmployeeSpecification.searchByText(null);
+
+	// Every employee in (lastName, id) order
+	private static final List<Long> BY_LAST_NAME = List.of(201L, 202L, 101L, 203L, 102L, 204L, 205L, 206L, 207L, 208L, 103L);
+
+	@Autowired
+	private ShardedEmployeeQueries queries;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeAll
+	void seed() {
+		// ddl-auto only creates the schema on shard 0
+		List<String> schema = jdbcTemplate.queryForList("script nodata", String.class).stream()
+				.filter(statement -> statement.startsWith("CREATE") && !statement.startsWith("CREATE USER"))
+				.toList();
+		onShard(1, () -> schema.forEach(jdbcTemplate::execute));
+
+		for (int shard = 0; shard < 2; shard++) {
+			onShard(shard, () -> {
+				jdbcTemplate.update("insert into users (id, username, email) values (1, 'raj', 'raj@example.com')");
+				for (int department = 1; department <= 4; department++) {
+					jdbcTemplate.update("insert into departments (id, department_name, location, created_by) values (?, ?, 'Pune', 1)",
+							department, "Dept" + department);
+				}
+			});
+		}
+		onShard(0, () -> {
+			employee(101, "Bose", 2);
+			employee(102, "Das", 4);
+			employee(103, "Iyer", 2);
+		});
+		onShard(1, () -> {
+			employee(201, "Adams", 1);
+			employee(202, "Baker", 3);
+			employee(203, "Chen", 1);
+			employee(204, "Das", 3);
+			employee(205, "Evans", 1);
+			employee(206, "Fox", 3);
+			employee(207, "Gupta", 1);
+			employee(208, "Hill", 3);
+		});
+	}
+
+	@Test
+	void gathersTheEmployeesOfEveryShard() {
+		assertThat(ids(queries.findAllDto(EVERYONE, FieldSet.ALL))).containsExactlyInAnyOrderElementsOf(BY_LAST_NAME);
+	}
+
+	@Test
+	void pagesAreMergedInGlobalOrderWithSummedTotals() {
+		List<Long> merged = new ArrayList<>();
+		for (int page = 0; page < 4; page++) {
+			Page<EmployeeDto> rows = queries.findAllDto(EVERYONE, PageRequest.of(page, 3, byLastName()), FieldSet.ALL);
+			assertThat(rows.getTotalElements()).isEqualTo(11);
+			assertThat(rows.getTotalPages()).isEqualTo(4);
+			merged.addAll(ids(rows.getContent()));
+		}
+		assertThat(merged).containsExactlyElementsOf(BY_LAST_NAME);
+	}
+
+	@Test
+	void pageBeyondTheRowsOfOneShard() {
+		// Offset 6 is past the three rows of shard 0, its last row (Iyer) sorts after all of shard 1
+		Page<EmployeeDto> page = queries.findAllDto(EVERYONE, PageRequest.of(2, 3, byLastName()), FieldSet.ALL);
+
+		assertThat(ids(page.getContent())).containsExactly(205L, 206L, 207L);
+		assertThat(page.hasNext()).isTrue();
+	}
+
+	@Test
+	void descendingSlicesTellWhetherThereIsANextOne() {
+		Sort byIdDescending = Sort.by(Sort.Direction.DESC, "id");
+
+		Slice<EmployeeDto> first = queries.findDtoSlice(EVERYONE, PageRequest.of(0, 4, byIdDescending), FieldSet.ALL);
+		Slice<EmployeeDto> last = queries.findDtoSlice(EVERYONE, PageRequest.of(2, 4, byIdDescending), FieldSet.ALL);
+
+		assertThat(ids(first.getContent())).containsExactly(208L, 207L, 206L, 205L);
+		assertThat(first.hasNext()).isTrue();
+		assertThat(ids(last.getContent())).containsExactly(103L, 102L, 101L);
+		assertThat(last.hasNext()).isFalse();
+	}
+
+	@Test
+	void limitedRowsAreTheFirstOfTheMergedOrder() {
+		assertThat(ids(queries.findAllDto(EVERYONE, byLastName(), 5, FieldSet.ALL)))
+				.containsExactlyElementsOf(BY_LAST_NAME.subList(0, 5));
+	}
+
+	@Test
+	void departmentIdFilterOnlyQueriesItsShard() {
+		// A stray row on shard 0 with a department of shard 1 is only found when shard 0 is queried
+		onShard(0, () -> employee(109, "Stray", 3));
+		try {
+			List<SearchFilter> pinned = List.of(new SearchFilter("department.id", "3", "equal"));
+			List<SearchFilter> bothShards = List.of(new SearchFilter("department.id", "3,2", "in"));
+			List<SearchFilter> unpinned = List.of(new SearchFilter("department.id", "3", "lessThanEqual"));
+
+			assertThat(ids(queries.findAllDto(pinned, FieldSet.ALL))).containsExactlyInAnyOrder(202L, 204L, 206L, 208L);
+			assertThat(ids(queries.findAllDto(bothShards, FieldSet.ALL)))
+					.containsExactlyInAnyOrder(101L, 103L, 109L, 202L, 204L, 206L, 208L);
+			assertThat(ids(queries.findAllDto(unpinned, FieldSet.ALL))).contains(109L, 201L, 101L);
+		} finally {
+			onShard(0, () -> jdbcTemplate.update("delete from employees where id = 109"));
+		}
+	}
+
+	@Test
+	void sortKeyTheRowsDoNotCarryIsRejected() {
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> queries.findAllDto(EVERYONE,
+						PageRequest.of(0, 3, Sort.by("department.location").and(Sort.by("id"))), FieldSet.ALL))
+				.withMessageContaining("department.location");
+	}
+
+	private static Sort byLastName() {
+		return Sort.by("lastName").and(Sort.by("id"));
+	}
+
+	private void employee(long id, String lastName, long department) {
+		jdbcTemplate.update("insert into employees (id, first_name, last_name, email, salary, department_id, created_by)"
+				+ " values (?, 'Emp', ?, ?, 50000, ?, 1)", id, lastName, "emp" + id + "@example.com", department);
+	}
+
+	private void onShard(int shard, Runnable action) {
+		queries.onShard(shard, () -> {
+			action.run();
+			return null;
+		});
+	}
+
+	private static List<Long> ids(List<EmployeeDto> rows) {
+		return rows.stream().map(EmployeeDto::id).toList();
+	}
+}
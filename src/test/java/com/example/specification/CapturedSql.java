@@ -0,0 +1,39 @@
+package com.example.specification;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/** Keeps every SQL statement Hibernate prepares, registered through
+ *  hibernate.session_factory.statement_inspector. Hibernate creates the instance, so the statements are static.
+ */
+public class CapturedSql implements StatementInspector {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+	@Override
+	public String inspect(String sql) {
+		STATEMENTS.add(sql);
+		return sql;
+	}
+
+	public static void clear() {
+		STATEMENTS.clear();
+	}
+
+	/** The statements prepared since clear(), in order. */
+	public static List<String> all() {
+		return List.copyOf(STATEMENTS);
+	}
+
+	/** The one statement prepared since clear(). */
+	public static String single() {
+		if (STATEMENTS.size() != 1) {
+			throw new AssertionError("Expected one statement, got " + STATEMENTS);
+		}
+		return STATEMENTS.get(0);
+	}
+}
@@ -0,0 +1,231 @@
+package com.example.specification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.dto.EmployeeDto;
+import com.example.dto.FieldSet;
+import com.example.entity.Department;
+import com.example.entity.Employee;
+import com.example.entity.Project;
+import com.example.entity.User;
+import com.example.repository.DepartmentRepository;
+import com.example.repository.EmployeeRepository;
+import com.example.repository.ProjectRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.JoinType;
+
+/** The statements a FetchPlan makes for a page: fetch joins only in the query for the rows, never in the
+ *  count, and batched or subselected associations in one extra statement instead of one per row.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.NONE,
+		properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.specification.CapturedSql")
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class FetchPlanTest {
+
+	private static final PageRequest FIRST_PAGE = PageRequest.of(0, 4, Sort.by("id"));
+
+	@Autowired
+	private EmployeeRepository empRepo;
+
+	@Autowired
+	private DepartmentRepository deptRepo;
+
+	@Autowired
+	private ProjectRepository projectRepo;
+
+	@Autowired
+	private EntityManager em;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeAll
+	void seed() {
+		transactionTemplate.executeWithoutResult(status -> {
+			User user = User.builder().username("raj").email("raj@example.com").status("ACTIVE").build();
+			em.persist(user);
+			List<Project> projects = List.of(
+					Project.builder().projectName("Apollo").category("Internal").createdBy(user).build(),
+					Project.builder().projectName("Gemini").category("Client").createdBy(user).build(),
+					Project.builder().projectName("Mercury").category("Client").createdBy(user).build());
+			projects.forEach(em::persist);
+			for (int d = 0; d < 3; d++) {
+				Department department = Department.builder().departmentName("Dept " + d).location("Pune")
+						.createdBy(user).build();
+				em.persist(department);
+				for (int e = 0; e < 3; e++) {
+					em.persist(Employee.builder().firstName("Emp" + d + e).lastName("Sharma")
+							.email("emp" + d + e + "@example.com").department(department).createdBy(user)
+							.projects(List.of(projects.get(e), projects.get((e + 1) % 3))).build());
+				}
+			}
+		});
+	}
+
+	@BeforeEach
+	void clearCapturedSql() {
+		CapturedSql.clear();
+	}
+
+	@Test
+	void countQueryOfAJoinPlanHasNoFetchJoin() {
+		FetchPlan<Employee> plan = FetchPlan.of(Employee.class).join("department").join("department.createdBy");
+
+		Page<Employee> page = inTransaction(() -> {
+			Page<Employee> employees = empRepo.findAllWithPlan(EmployeeSpecification.searchByText(null), plan, FIRST_PAGE);
+			employees.forEach(employee -> assertThat(Hibernate.isInitialized(employee.getDepartment().getCreatedBy())).isTrue());
+			return employees;
+		});
+
+		assertThat(page.getContent()).hasSize(4);
+		assertThat(page.getTotalElements()).isEqualTo(9);
+		List<String> statements = CapturedSql.all();
+		assertThat(statements).hasSize(2);
+		assertThat(statements.get(0)).containsPattern("join departments").containsPattern("join users")
+				.contains("department_name");
+		assertThat(statements.get(1)).contains("count(").doesNotContain("departments").doesNotContain("users");
+	}
+
+	@Test
+	void predicateJoinIsSharedWithTheFetchJoin() {
+		FetchPlan<Employee> plan = FetchPlan.of(Employee.class).join("department", JoinType.INNER);
+
+		Page<Employee> page = inTransaction(
+				() -> empRepo.findAllWithPlan(EmployeeSpecification.searchByText("dept 1"), plan, FIRST_PAGE));
+
+		assertThat(page.getContent()).extracting(Employee::getFirstName).containsExactly("Emp10", "Emp11", "Emp12");
+		List<String> statements = CapturedSql.all();
+		assertThat(statements).hasSize(1);
+		assertThat(statements.get(0).split("join departments", -1)).hasSize(2);
+	}
+
+	@Test
+	void countQueryKeepsThePredicateJoin() {
+		FetchPlan<Employee> plan = FetchPlan.of(Employee.class).join("department", JoinType.INNER);
+
+		Page<Employee> page = inTransaction(
+				() -> empRepo.findAllWithPlan(EmployeeSpecification.searchByText("sharma"), plan, FIRST_PAGE));
+
+		assertThat(page.getTotalElements()).isEqualTo(9);
+		String count = CapturedSql.all().get(1);
+		assertThat(count).startsWith("select count(").contains("department_name) like");
+		assertThat(count.split("join departments", -1)).hasSize(2);
+	}
+
+	@Test
+	void searchOverTheDtoProjectionReusesItsLeftJoin() {
+		List<EmployeeDto> rows = transactionTemplate.execute(status -> {
+			status.setRollbackOnly();
+			em.persist(Employee.builder().firstName("Loner").lastName("Sharma").email("loner@example.com")
+					.createdBy(em.createQuery("select u from User u", User.class).getSingleResult()).build());
+			em.flush();
+			CapturedSql.clear();
+			return empRepo.findAllDto(EmployeeSpecification.searchByText("sharma"), FieldSet.ALL);
+		});
+
+		// The employee without a department is still left out, as by the inner join
+		assertThat(rows).hasSize(9).allSatisfy(row -> assertThat(row.departmentName()).isNotNull());
+		String statement = CapturedSql.single();
+		assertThat(statement.split("join departments", -1)).hasSize(2);
+		assertThat(statement).contains("left join departments").containsPattern("id is not null");
+	}
+
+	@Test
+	void searchReusesTheLeftFetchJoinOfAPlan() {
+		FetchPlan<Employee> plan = FetchPlan.of(Employee.class).join("department");
+
+		List<Employee> employees = inTransaction(
+				() -> empRepo.findAllWithPlan(EmployeeSpecification.searchByText("dept 2"), plan, Sort.by("id")));
+
+		assertThat(employees).extracting(Employee::getFirstName).containsExactly("Emp20", "Emp21", "Emp22");
+		assertThat(CapturedSql.single().split("join departments", -1)).hasSize(2);
+	}
+
+	@Test
+	void batchPlanLoadsTheCollectionsOfAPageInOneStatement() {
+		FetchPlan<Employee> plan = FetchPlan.of(Employee.class).batch("projects");
+
+		inTransaction(() -> {
+			Page<Employee> page = empRepo.findAllWithPlan(EmployeeSpecification.searchByText(null), plan, FIRST_PAGE);
+			page.forEach(employee -> assertThat(Hibernate.isInitialized(employee.getProjects())).isTrue());
+			return page;
+		});
+
+		// rows, the projects of all four employees, then the count
+		List<String> statements = CapturedSql.all();
+		assertThat(statements).hasSize(3);
+		assertThat(statements.get(1)).contains("employee_projects");
+		assertThat(statements.get(2)).startsWith("select count(");
+	}
+
+	@Test
+	void subselectPlanRepeatsTheQueryForTheCollections() {
+		FetchPlan<Employee> plan = FetchPlan.of(Employee.class).subselect("projects");
+
+		inTransaction(() -> {
+			List<Employee> employees = empRepo.findAllWithPlan(EmployeeSpecification.searchByText("emp1"), plan,
+					Sort.by("id"));
+			assertThat(employees).hasSize(3);
+			employees.forEach(employee -> assertThat(Hibernate.isInitialized(employee.getProjects())).isTrue());
+			return employees;
+		});
+
+		List<String> statements = CapturedSql.all();
+		assertThat(statements).hasSize(2);
+		assertThat(statements.get(1)).contains("employee_projects").containsPattern("in \\(select");
+	}
+
+	@Test
+	void subselectOfAToOnePathIsRejected() {
+		FetchPlan<Employee> plan = FetchPlan.of(Employee.class).subselect("department");
+
+		assertThatThrownBy(() -> inTransaction(
+				() -> empRepo.findAllWithPlan(EmployeeSpecification.searchByText(null), plan, Sort.unsorted())))
+				.hasRootCauseInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("needs a collection path");
+	}
+
+	@Test
+	void departmentAndProjectRepositoriesApplyPlans() {
+		inTransaction(() -> {
+			Page<Department> departments = deptRepo.findAllWithPlan(DepartmentSpecification.hasLocation("Pune"),
+					FetchPlan.of(Department.class).join("createdBy"), PageRequest.of(0, 2, Sort.by("id")));
+			assertThat(departments.getTotalElements()).isEqualTo(3);
+			departments.forEach(department -> assertThat(Hibernate.isInitialized(department.getCreatedBy())).isTrue());
+
+			List<Project> projects = projectRepo.findAllWithPlan(null,
+					FetchPlan.of(Project.class).batch("employees"), Sort.by("id"));
+			assertThat(projects).extracting(project -> project.getEmployees().size()).containsExactly(6, 6, 6);
+			return projects;
+		});
+
+		List<String> statements = CapturedSql.all();
+		assertThat(statements).hasSize(4);
+		assertThat(statements.get(1)).contains("count(").doesNotContain("users");
+		assertThat(statements.get(3)).contains("employee_projects");
+	}
+
+	private <T> T inTransaction(Supplier<T> work) {
+		return transactionTemplate.execute(status -> work.get());
+	}
+}
@@ -0,0 +1,111 @@
+package com.example.specification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.dto.FieldSet;
+import com.example.dto.SearchFilter;
+import com.example.repository.DepartmentRepository;
+import com.example.repository.EmployeeRepository;
+
+/** The SQL the prefix-mode predicates produce: raw columns instead of lower(), no leading wildcard, and
+ *  the plans H2 chooses for them, which seek the column indexes where the contains variants scan.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.NONE,
+		properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.specification.CapturedSql")
+@ActiveProfiles("test")
+class IndexFriendlyPredicatesTest {
+
+	@Autowired
+	private EmployeeRepository empRepo;
+
+	@Autowired
+	private DepartmentRepository deptRepo;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void clearCapturedSql() {
+		CapturedSql.clear();
+	}
+
+	@Test
+	void searchByPrefixComparesTheRawColumns() {
+		empRepo.findAll(EmployeeSpecification.searchByPrefix("Pri_"));
+
+		String sql = CapturedSql.single();
+		assertThat(sql).doesNotContainIgnoringCase("lower(")
+				.containsPattern("first_name like \\? escape '\\\\'")
+				.containsPattern("last_name like \\? escape '\\\\'")
+				.containsPattern("email like \\? escape '\\\\'")
+				.containsPattern("department_name like \\? escape '\\\\'");
+	}
+
+	@Test
+	void searchByTextLowersTheColumns() {
+		empRepo.findAll(EmployeeSpecification.searchByText("Pri"));
+
+		assertThat(CapturedSql.single()).containsPattern("lower\\(\\w+\\.first_name\\) like \\?");
+	}
+
+	@Test
+	void startsWithFilterSeeksTheColumnIndex() {
+		empRepo.findAllDto(List.of(new SearchFilter("firstName", "Pri", "startsWith")), FieldSet.ALL);
+
+		String sql = CapturedSql.single();
+		assertThat(sql).doesNotContainIgnoringCase("lower(").containsPattern("first_name like \\? escape");
+		assertThat(explain(sql, "Pri%")).containsIgnoringCase("idx_employees_first_name");
+	}
+
+	@Test
+	void containsFilterScansTheTable() {
+		empRepo.findAllDto(List.of(new SearchFilter("firstName", "pri", "like")), FieldSet.ALL);
+
+		String sql = CapturedSql.single();
+		assertThat(sql).containsPattern("lower\\(\\w+\\.first_name\\) like \\?");
+		assertThat(explain(sql, "%pri%")).doesNotContainIgnoringCase("idx_employees_first_name");
+	}
+
+	@Test
+	void equalFilterComparesTheRawColumn() {
+		empRepo.findAllDto(List.of(new SearchFilter("lastName", "Sharma", "equal")), FieldSet.ALL);
+
+		String sql = CapturedSql.single();
+		assertThat(sql).doesNotContainIgnoringCase("lower(").containsPattern("last_name=\\?");
+		assertThat(explain(sql, "Sharma")).containsIgnoringCase("idx_employees_last_name");
+	}
+
+	@Test
+	void locationAndBudgetSeekTheCompositeIndex() {
+		deptRepo.findAll(DepartmentSpecification.hasLocation("Pune")
+				.and(DepartmentSpecification.budgetGreaterThen(new BigDecimal("100000"))));
+
+		String sql = CapturedSql.single();
+		assertThat(sql).containsPattern("location=\\?").containsPattern("budget>\\?");
+		assertThat(explain(sql, "Pune", new BigDecimal("100000"))).containsIgnoringCase("idx_departments_location_budget");
+	}
+
+	@Test
+	void createdByPrefixComparesTheRawUsername() {
+		deptRepo.findAll(DepartmentSpecification.createdByPrefix("ra"));
+
+		assertThat(CapturedSql.single()).doesNotContainIgnoringCase("lower(")
+				.containsPattern("username like \\? escape '\\\\'");
+	}
+
+	/** H2's plan for the statement with the given parameters, naming the index it reads if any. */
+	private String explain(String sql, Object... parameters) {
+		return jdbcTemplate.queryForObject("explain " + sql, String.class, parameters);
+	}
+}